@@ -0,0 +1,41 @@
+package com.example.aemix.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Кэш справочников (города, ссылки на инструкции) в памяти.
+ * Кэширующий advice стоит снаружи транзакционного, поэтому @CacheEvict срабатывает уже после коммита.
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+    public static final String CITIES = "cities";
+    public static final String CITY_BY_ID = "cityById";
+    public static final String INSTRUCTION_LINKS = "instructionLinks";
+
+    @Value("${app.cache.reference.max-entries:500}")
+    private long maxEntries;
+
+    // города меняются напрямую в БД, TTL ограничивает время жизни устаревших данных
+    @Value("${app.cache.reference.ttl-minutes:10}")
+    private long ttlMinutes;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(CITIES, CITY_BY_ID, INSTRUCTION_LINKS);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes)));
+        cacheManager.setAllowNullValues(false);
+        return cacheManager;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.aemix.config;
+
+import com.example.aemix.entities.User;
+import com.example.aemix.entities.enums.Role;
+import com.example.aemix.repositories.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Аутентификация станции сканирования при открытии WebSocket.
+ * JWT передается в заголовке {@code Authorization: Bearer ...} или, из браузера, где заголовки
+ * при открытии WebSocket задать нельзя, подпротоколом {@code Sec-WebSocket-Protocol: bearer, <token>}.
+ * Query-параметр не поддерживается: он попадает в access-логи и логи прокси.
+ * Срок действия токена и роль пользователя перепроверяются на протяжении соединения
+ * ({@link ScanStationWebSocketHandler}).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ScanStationHandshakeInterceptor implements HandshakeInterceptor {
+    public static final String USER_ATTRIBUTE = "user";
+    public static final String TOKEN_EXPIRES_AT_ATTRIBUTE = "tokenExpiresAt";
+    public static final String BEARER_PROTOCOL = "bearer";
+
+    private final JwtDecoder jwtDecoder;
+    private final UserRepository userRepository;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String token = token(request);
+        if (token == null || token.isBlank()) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        Jwt jwt;
+        try {
+            jwt = jwtDecoder.decode(token);
+        } catch (JwtException e) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        Optional<User> user = userRepository.findByIdentifier(jwt.getClaimAsString("emailOrTelegramId"));
+        if (user.isEmpty()) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+        if (!isScanOperator(user.get())) {
+            response.setStatusCode(HttpStatus.FORBIDDEN);
+            return false;
+        }
+
+        attributes.put(USER_ATTRIBUTE, user.get());
+        attributes.put(TOKEN_EXPIRES_AT_ATTRIBUTE, jwt.getExpiresAt());
+        return true;
+    }
+
+    public static boolean isScanOperator(User user) {
+        return user.getRole() == Role.ADMIN || user.getRole() == Role.SUPER_ADMIN;
+    }
+
+    private static String token(ServerHttpRequest request) {
+        String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return authorization.substring(7).trim();
+        }
+        // Sec-WebSocket-Protocol: bearer, <token> - сервер подтверждает только подпротокол bearer
+        List<String> protocols = new WebSocketHttpHeaders(request.getHeaders()).getSecWebSocketProtocol();
+        int bearer = protocols.indexOf(BEARER_PROTOCOL);
+        return bearer >= 0 && bearer + 1 < protocols.size() ? protocols.get(bearer + 1) : null;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.aemix.config;
+
+import com.example.aemix.dto.responses.BatchScanResponse;
+import com.example.aemix.dto.responses.ScanResultResponse;
+import com.example.aemix.entities.User;
+import com.example.aemix.repositories.UserRepository;
+import com.example.aemix.services.AdminScanService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.SubProtocolCapable;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Протокол станции сканирования: клиент отправляет трек-коды (по одному на строку),
+ * на каждый код сервер отвечает подтверждением с результатом перевода в ARRIVED.
+ * Перед каждым сообщением пользователь перечитывается из БД: удаление или понижение роли
+ * закрывает соединение. Соединения с истекшим токеном закрываются по таймеру, даже если станция молчит.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ScanStationWebSocketHandler extends TextWebSocketHandler implements SubProtocolCapable {
+    private static final int MAX_CODES_PER_MESSAGE = 1000;
+    private static final CloseStatus TOKEN_EXPIRED = CloseStatus.POLICY_VIOLATION.withReason("Срок действия токена истек");
+    private static final CloseStatus ACCESS_REVOKED = CloseStatus.POLICY_VIOLATION.withReason("Доступ к станции сканирования отозван");
+
+    private final AdminScanService adminScanService;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Set<WebSocketSession> sessions = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public List<String> getSubProtocols() {
+        return List.of(ScanStationHandshakeInterceptor.BEARER_PROTOCOL);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        sessions.add(session);
+        log.info("Станция сканирования подключена: {}", operator(session).getEmailOrTelegramId());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException {
+        if (isExpired(session, Instant.now())) {
+            session.close(TOKEN_EXPIRED);
+            return;
+        }
+        Optional<User> current = userRepository.findById(operator(session).getId())
+                .filter(ScanStationHandshakeInterceptor::isScanOperator);
+        if (current.isEmpty()) {
+            log.warn("Станция сканирования {} отключена: пользователь удален или лишен прав",
+                    operator(session).getEmailOrTelegramId());
+            session.close(ACCESS_REVOKED);
+            return;
+        }
+        session.getAttributes().put(ScanStationHandshakeInterceptor.USER_ATTRIBUTE, current.get());
+
+        List<String> trackCodes = message.getPayload().lines()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty())
+                .toList();
+        if (trackCodes.isEmpty()) {
+            return;
+        }
+        if (trackCodes.size() > MAX_CODES_PER_MESSAGE) {
+            sendError(session, "Максимальное количество трек-кодов в одном сообщении: " + MAX_CODES_PER_MESSAGE);
+            return;
+        }
+
+        BatchScanResponse response;
+        try {
+            response = adminScanService.scanArrivedBatch(trackCodes, operator(session));
+        } catch (Exception e) {
+            log.error("Ошибка обработки сканирования на станции {}: {}", operator(session).getEmailOrTelegramId(), e.getMessage());
+            sendError(session, "Внутренняя ошибка сервера");
+            return;
+        }
+
+        for (ScanResultResponse result : response.getResults()) {
+            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(result)));
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        sessions.remove(session);
+        log.info("Станция сканирования отключена: {} ({})", operator(session).getEmailOrTelegramId(), status.getCode());
+    }
+
+    @Scheduled(fixedDelayString = "${app.scan-station.token-check-interval-ms:30000}")
+    public void closeExpiredSessions() {
+        Instant now = Instant.now();
+        for (WebSocketSession session : sessions) {
+            if (session.isOpen() && isExpired(session, now)) {
+                try {
+                    session.close(TOKEN_EXPIRED);
+                } catch (IOException e) {
+                    log.warn("Не удалось закрыть соединение станции {}: {}", session.getId(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private boolean isExpired(WebSocketSession session, Instant now) {
+        Instant expiresAt = (Instant) session.getAttributes().get(ScanStationHandshakeInterceptor.TOKEN_EXPIRES_AT_ATTRIBUTE);
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+
+    private User operator(WebSocketSession session) {
+        return (User) session.getAttributes().get(ScanStationHandshakeInterceptor.USER_ATTRIBUTE);
+    }
+
+    private void sendError(WebSocketSession session, String message) throws IOException {
+        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(Map.of("error", message))));
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.aemix.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    @Value("${api.version}")
+    private String apiVersion;
+
+    // браузерные клиенты станции; нативные сканеры Origin не присылают и не ограничиваются
+    @Value("${app.scan-station.allowed-origins:http://localhost:5173,http://127.0.0.1:5173,https://aemix-ship-front-roan.vercel.app}")
+    private String[] allowedOrigins;
+
+    private final ScanStationWebSocketHandler scanStationWebSocketHandler;
+    private final ScanStationHandshakeInterceptor scanStationHandshakeInterceptor;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // Origin ограничен фронтендом: утекший токен нельзя использовать со стороннего сайта
+        registry.addHandler(scanStationWebSocketHandler, apiVersion + "/ws/scan-station")
+                .addInterceptors(scanStationHandshakeInterceptor)
+                .setAllowedOrigins(allowedOrigins);
+    }
+}
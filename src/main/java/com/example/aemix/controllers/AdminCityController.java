@@ -0,0 +1,37 @@
+package com.example.aemix.controllers;
+
+import com.example.aemix.services.CityService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@Validated
+@RequiredArgsConstructor
+@PreAuthorize("hasAuthority('ROLE_SUPER_ADMIN')")
+@RequestMapping("${api.version}/admin/cities")
+@Tag(name = "Admin Cities", description = "Управление справочником городов (только Super Admin)")
+public class AdminCityController {
+
+    private final CityService cityService;
+
+    @Operation(
+            summary = "Сбросить кэш городов",
+            description = "Города меняются напрямую в БД. После изменения сбросьте кэш, чтобы список и импорт увидели новые данные сразу, не дожидаясь TTL"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Кэш сброшен"),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав")
+    })
+    @DeleteMapping("/cache")
+    public ResponseEntity<Void> evictCache() {
+        cityService.evictCache();
+        return ResponseEntity.noContent().build();
+    }
+}
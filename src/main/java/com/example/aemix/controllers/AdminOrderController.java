@@ -4,10 +4,12 @@ import com.example.aemix.dto.requests.BulkReadyRequest;
 import com.example.aemix.dto.requests.UploadOrdersRequest;
 import com.example.aemix.dto.responses.*;
 import com.example.aemix.entities.User;
+import com.example.aemix.entities.enums.ImportMode;
 import com.example.aemix.entities.enums.OrderSort;
 import com.example.aemix.entities.enums.Status;
 import com.example.aemix.services.AdminOrderService;
 import com.example.aemix.services.AuthService;
+import com.example.aemix.services.OrderImportJobService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,16 +17,22 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 
 @RestController
@@ -36,6 +44,7 @@ import java.time.LocalDateTime;
 public class AdminOrderController {
     private final AdminOrderService adminOrderService;
     private final AuthService authService;
+    private final OrderImportJobService orderImportJobService;
 
     @Operation(
             summary = "Импорт заказов из Excel",
@@ -62,6 +71,156 @@ public class AdminOrderController {
         return ResponseEntity.ok(adminOrderService.uploadOrders(request, user));
     }
 
+    @Operation(
+            summary = "Импорт заказов из XLSX файла",
+            description = "Потоковый импорт трек-кодов из первой колонки первого листа. Создает заказы со статусом INTERNATIONAL_SHIPPING. "
+                    + "Не больше " + AdminOrderService.SYNC_UPLOAD_LIMIT + " строк, большие файлы - через фоновый импорт /import-jobs/xlsx"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Заказы успешно импортированы",
+                    content = @Content(schema = @Schema(implementation = UploadOrdersResponse.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Файл невалиден", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Город не найден", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Пользователь не авторизован", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+    })
+    @PostMapping(value = "/upload/xlsx", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<UploadOrdersResponse> uploadOrdersXlsx(
+            @AuthenticationPrincipal Jwt jwt,
+            @Parameter(description = "ID города", required = true)
+            @RequestParam Long cityId,
+            @Parameter(description = "Первая строка листа является заголовком")
+            @RequestParam(defaultValue = "true") boolean hasHeader,
+            @Parameter(description = "XLSX файл с трек-кодами в первой колонке", required = true)
+            @RequestPart("file") MultipartFile file
+    ) {
+        User user = authService.getUser(jwt);
+        return ResponseEntity.ok(adminOrderService.uploadOrdersXlsx(cityId, file, hasHeader, user));
+    }
+
+    @Operation(
+            summary = "Потоковый импорт заказов",
+            description = "Принимает тело в формате UploadOrdersRequest и разбирает массив orders потоково, без загрузки в память. "
+                    + "Заказы коммитятся чанками по мере чтения. cityId можно передать query-параметром"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Заказы успешно импортированы",
+                    content = @Content(schema = @Schema(implementation = UploadOrdersResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "422",
+                    description = "Тело оборвалось или содержит ошибку после начала импорта: заказы до ошибки импортированы, "
+                            + "в ответе счетчики и failureReason",
+                    content = @Content(schema = @Schema(implementation = UploadOrdersResponse.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Данные невалидны, ничего не импортировано", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Город не найден", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Пользователь не авторизован", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+    })
+    @PostMapping(value = "/upload/stream", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<UploadOrdersResponse> uploadOrdersStream(
+            @AuthenticationPrincipal Jwt jwt,
+            @Parameter(description = "ID города (если не указан в теле запроса перед orders)")
+            @RequestParam(required = false) Long cityId,
+            HttpServletRequest request
+    ) throws IOException {
+        User user = authService.getUser(jwt);
+        UploadOrdersResponse response = adminOrderService.uploadOrdersStream(request.getInputStream(), cityId, user);
+        return ResponseEntity.status(response.getFailureReason() == null ? 200 : 422).body(response);
+    }
+
+    @Operation(
+            summary = "Фоновый импорт заказов",
+            description = "Ставит импорт в очередь и сразу возвращает id задачи. Заказы коммитятся чанками, прогресс доступен через GET /import-jobs/{jobId}"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Задача импорта создана",
+                    content = @Content(schema = @Schema(implementation = ImportJobResponse.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Данные невалидны", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Город не найден", content = @Content),
+            @ApiResponse(responseCode = "429", description = "Очередь импорта заполнена", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Пользователь не авторизован", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+    })
+    @PostMapping("/import-jobs")
+    public ResponseEntity<ImportJobResponse> submitImportJob(
+            @AuthenticationPrincipal Jwt jwt,
+            @Parameter(description = "Режим загрузки: BATCH (чанки с отдельными коммитами) или COPY (bulk-load через staging-таблицу)")
+            @RequestParam(defaultValue = "BATCH") ImportMode mode,
+            @RequestBody @Valid UploadOrdersRequest request
+    ) {
+        User user = authService.getUser(jwt);
+        return ResponseEntity.accepted().body(orderImportJobService.submit(request, mode, user));
+    }
+
+    @Operation(
+            summary = "Фоновый импорт заказов из XLSX файла",
+            description = "Ставит потоковый импорт XLSX в очередь и сразу возвращает id задачи"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Задача импорта создана",
+                    content = @Content(schema = @Schema(implementation = ImportJobResponse.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Файл невалиден", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Город не найден", content = @Content),
+            @ApiResponse(responseCode = "429", description = "Очередь импорта заполнена", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Пользователь не авторизован", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+    })
+    @PostMapping(value = "/import-jobs/xlsx", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportJobResponse> submitXlsxImportJob(
+            @AuthenticationPrincipal Jwt jwt,
+            @Parameter(description = "ID города", required = true)
+            @RequestParam Long cityId,
+            @Parameter(description = "Первая строка листа является заголовком")
+            @RequestParam(defaultValue = "true") boolean hasHeader,
+            @Parameter(description = "Режим загрузки: BATCH (чанки с отдельными коммитами) или COPY (bulk-load через staging-таблицу)")
+            @RequestParam(defaultValue = "BATCH") ImportMode mode,
+            @Parameter(description = "XLSX файл с трек-кодами в первой колонке", required = true)
+            @RequestPart("file") MultipartFile file
+    ) {
+        User user = authService.getUser(jwt);
+        return ResponseEntity.accepted().body(orderImportJobService.submitXlsx(cityId, file, hasHeader, mode, user));
+    }
+
+    @Operation(
+            summary = "Статус задачи импорта",
+            description = "Возвращает прогресс фонового импорта: обработано, создано, пропущено строк и скорость обработки"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Состояние задачи",
+                    content = @Content(schema = @Schema(implementation = ImportJobResponse.class))
+            ),
+            @ApiResponse(responseCode = "404", description = "Задача не найдена", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Пользователь не авторизован", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+    })
+    @GetMapping("/import-jobs/{jobId}")
+    public ResponseEntity<ImportJobResponse> getImportJob(
+            @Parameter(description = "ID задачи импорта", required = true)
+            @PathVariable String jobId
+    ) {
+        return ResponseEntity.ok(orderImportJobService.getJob(jobId));
+    }
+
     @Operation(
             summary = "Получить список всех заказов",
             description = "Возвращает список всех заказов с фильтрацией по трек-коду, статусу, городу, датам и пагинацией"
@@ -93,9 +252,50 @@ public class AdminOrderController {
             @Parameter(description = "Размер страницы")
             @RequestParam(defaultValue = "20") int size,
             @Parameter(description = "Сортировка: CREATED_DESC (сначала новые) или CREATED_ASC (сначала старые)")
+            @RequestParam(defaultValue = "CREATED_DESC") OrderSort sort,
+            @Parameter(description = "Считать общее количество (COUNT). При false возвращается только hasNext и, без фильтров, оценка количества")
+            @RequestParam(defaultValue = "true") boolean withTotal
+    ) {
+        var orders = adminOrderService.getOrders(trackCode, status, cityId, fromDate, toDate, page, size, sort, withTotal);
+        Long estimatedTotal = withTotal ? null : adminOrderService.estimateOrdersTotal(trackCode, status, cityId, fromDate, toDate);
+        return ResponseEntity.ok(new PaginationResponse<>(orders, estimatedTotal));
+    }
+
+    @Operation(
+            summary = "Получить заказы постранично по курсору",
+            description = "Keyset-пагинация по (createdAt, trackCode): стоимость страницы не зависит от ее номера, общее количество не считается. "
+                    + "Для первой страницы передайте пустой cursor, далее - nextCursor или prevCursor из ответа"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Страница заказов",
+                    content = @Content(schema = @Schema(implementation = CursorPageResponse.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Пользователь не авторизован", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+    })
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageResponse<OrderResponse>> getOrdersByCursor(
+            @Parameter(description = "Поиск по трек-коду")
+            @RequestParam(required = false) String trackCode,
+            @Parameter(description = "Фильтр по статусу")
+            @RequestParam(required = false) Status status,
+            @Parameter(description = "Фильтр по ID города")
+            @RequestParam(required = false) Long cityId,
+            @Parameter(description = "Фильтр по дате начала (от)")
+            @RequestParam(required = false) LocalDateTime fromDate,
+            @Parameter(description = "Фильтр по дате окончания (до)")
+            @RequestParam(required = false) LocalDateTime toDate,
+            @Parameter(description = "Курсор страницы (пустой для первой страницы)")
+            @RequestParam String cursor,
+            @Parameter(description = "Размер страницы")
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+            @Parameter(description = "Сортировка: CREATED_DESC (сначала новые) или CREATED_ASC (сначала старые)")
             @RequestParam(defaultValue = "CREATED_DESC") OrderSort sort
     ) {
-        var orders = adminOrderService.getOrders(trackCode, status, cityId, fromDate, toDate, page, size, sort);
-        return ResponseEntity.ok(new PaginationResponse<>(orders));
+        return ResponseEntity.ok(adminOrderService.getOrdersByCursor(trackCode, status, cityId, fromDate, toDate, cursor, size, sort));
     }
 }
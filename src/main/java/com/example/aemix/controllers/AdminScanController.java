@@ -1,6 +1,8 @@
 package com.example.aemix.controllers;
 
+import com.example.aemix.dto.requests.BatchScanRequest;
 import com.example.aemix.dto.requests.BulkReadyRequest;
+import com.example.aemix.dto.responses.BatchScanResponse;
 import com.example.aemix.dto.responses.BulkOperationResponse;
 import com.example.aemix.dto.responses.OrderResponse;
 import com.example.aemix.entities.User;
@@ -46,6 +48,7 @@ public class AdminScanController {
             @ApiResponse(responseCode = "404", description = "Заказ не найден", content = @Content),
             @ApiResponse(responseCode = "401", description = "Пользователь не авторизован", content = @Content),
             @ApiResponse(responseCode = "403", description = "Недостаточно прав", content = @Content),
+            @ApiResponse(responseCode = "429", description = "Очередь логов сканирования переполнена, повторите позже", content = @Content),
             @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
     })
     @PostMapping("/{trackCode}/scan-arrived")
@@ -58,6 +61,32 @@ public class AdminScanController {
         return ResponseEntity.ok(adminScanService.scanArrived(trackCode, user));
     }
 
+    @Operation(
+            summary = "Пакетное сканирование заказов при прибытии в город",
+            description = "Переводит переданные заказы из INTERNATIONAL_SHIPPING в ARRIVED одним запросом и возвращает результат по каждому трек-коду. "
+                    + "Используется сканерами, которые буферизуют трек-коды"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Пакет обработан",
+                    content = @Content(schema = @Schema(implementation = BatchScanResponse.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Данные невалидны", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Пользователь не авторизован", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав", content = @Content),
+            @ApiResponse(responseCode = "429", description = "Очередь логов сканирования переполнена, повторите позже", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+    })
+    @PostMapping("/scan-arrived")
+    public ResponseEntity<BatchScanResponse> scanArrivedBatch(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestBody @Valid BatchScanRequest request
+    ) {
+        User user = authService.getUser(jwt);
+        return ResponseEntity.ok(adminScanService.scanArrivedBatch(request.getTrackCodes(), user));
+    }
+
     @Operation(
             summary = "Массовое изменение статуса заказов на READY",
             description = "Изменяет статус выбранных заказов с ARRIVED на READY. Используется для массовой операции"
@@ -71,6 +100,7 @@ public class AdminScanController {
             @ApiResponse(responseCode = "400", description = "Данные невалидны", content = @Content),
             @ApiResponse(responseCode = "401", description = "Пользователь не авторизован", content = @Content),
             @ApiResponse(responseCode = "403", description = "Недостаточно прав", content = @Content),
+            @ApiResponse(responseCode = "429", description = "Очередь логов сканирования переполнена, повторите позже", content = @Content),
             @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
     })
     @PostMapping("/bulk-ready")
@@ -81,4 +111,29 @@ public class AdminScanController {
         User user = authService.getUser(jwt);
         return ResponseEntity.ok(adminScanService.bulkReady(request, user));
     }
+
+    @Operation(
+            summary = "Перевести все заказы города в READY",
+            description = "Изменяет статус всех заказов города с ARRIVED на READY одной операцией и записывает логи сканирования"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Операция выполнена",
+                    content = @Content(schema = @Schema(implementation = BulkOperationResponse.class))
+            ),
+            @ApiResponse(responseCode = "401", description = "Пользователь не авторизован", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Город не найден", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+    })
+    @PostMapping("/cities/{cityId}/ready")
+    public ResponseEntity<BulkOperationResponse> markCityReady(
+            @AuthenticationPrincipal Jwt jwt,
+            @Parameter(description = "ID города", required = true)
+            @PathVariable Long cityId
+    ) {
+        User user = authService.getUser(jwt);
+        return ResponseEntity.ok(adminScanService.markCityReady(cityId, user));
+    }
 }
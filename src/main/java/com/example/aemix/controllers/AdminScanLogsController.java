@@ -1,9 +1,11 @@
 package com.example.aemix.controllers;
 
 import com.example.aemix.dto.responses.PaginationResponse;
+import com.example.aemix.dto.responses.ScanEventResponse;
 import com.example.aemix.dto.responses.ScanLogsResponse;
 import com.example.aemix.entities.enums.Status;
 import com.example.aemix.services.AdminScanLogsService;
+import com.example.aemix.services.ScanFeedService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,6 +15,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
@@ -20,6 +24,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @Validated
@@ -30,6 +35,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class AdminScanLogsController {
 
     private final AdminScanLogsService adminScanLogsService;
+    private final ScanFeedService scanFeedService;
 
     @Operation(
             summary = "Получить логи сканирования",
@@ -60,18 +66,46 @@ public class AdminScanLogsController {
             @Parameter(description = "Номер страницы (начиная с 0)")
             @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Размер страницы")
-            @RequestParam(defaultValue = "50") int size
+            @RequestParam(defaultValue = "50") int size,
+            @Parameter(description = "Считать общее количество (COUNT). При false возвращается только hasNext и, без фильтров, оценка количества")
+            @RequestParam(defaultValue = "true") boolean withTotal
     ) {
-        Page<ScanLogsResponse> eventsPage = adminScanLogsService.getScanLogs(
+        Slice<ScanLogsResponse> events = adminScanLogsService.getScanLogs(
                 operator,
                 cityId,
                 status,
                 fromDate,
                 toDate,
                 page,
-                size
+                size,
+                withTotal
         );
-        return ResponseEntity.ok(new PaginationResponse<>(eventsPage));
+        Long estimatedTotal = withTotal ? null : adminScanLogsService.estimateScanLogsTotal(operator, cityId, status, fromDate, toDate);
+        return ResponseEntity.ok(new PaginationResponse<>(events, estimatedTotal));
+    }
+
+    @Operation(
+            summary = "Живая лента сканирований",
+            description = "Открывает поток Server-Sent Events: событие scan отправляется по каждому сканированию после его коммита. "
+                    + "Фильтры по городу и новому статусу применяются на сервере"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Поток событий сканирования",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE, schema = @Schema(implementation = ScanEventResponse.class))
+            ),
+            @ApiResponse(responseCode = "401", description = "Пользователь не авторизован", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав", content = @Content)
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamScanLogs(
+            @Parameter(description = "Фильтр по ID города")
+            @RequestParam(required = false) Long cityId,
+            @Parameter(description = "Фильтр по новому статусу")
+            @RequestParam(required = false) Status status
+    ) {
+        return scanFeedService.subscribe(cityId, status);
     }
 }
 
@@ -53,10 +53,12 @@ public class AdminUserController {
             @RequestParam(required = false) Role role,
             @RequestParam(required = false) Boolean isVerified,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "true") boolean withTotal
     ) {
-        var users = adminUserService.getUsers(text, role, isVerified, page, size);
-        return ResponseEntity.ok(new PaginationResponse<>(users));
+        var users = adminUserService.getUsers(text, role, isVerified, page, size, withTotal);
+        Long estimatedTotal = withTotal ? null : adminUserService.estimateUsersTotal(text, role, isVerified);
+        return ResponseEntity.ok(new PaginationResponse<>(users, estimatedTotal));
     }
 
     @Operation(
@@ -110,9 +112,10 @@ public class AdminUserController {
     public ResponseEntity<AdminUserResponse> getUserById(
             @PathVariable("emailOrTelegramId") String emailOrTelegramId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "true") boolean withTotal
     ){
-        AdminUserResponse user = adminUserService.getUser(emailOrTelegramId, page, size);
+        AdminUserResponse user = adminUserService.getUser(emailOrTelegramId, page, size, withTotal);
         return ResponseEntity.ok(user);
     }
 }
@@ -15,6 +15,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -37,12 +38,22 @@ public class CityController {
                     description = "Список городов",
                     content = @Content(schema = @Schema(implementation = City.class))
             ),
+            @ApiResponse(responseCode = "304", description = "Список не изменился (If-None-Match)", content = @Content),
             @ApiResponse(responseCode = "401", description = "Пользователь не авторизован", content = @Content),
             @ApiResponse(responseCode = "403", description = "Недостаточно прав", content = @Content),
             @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
     })
     @GetMapping
-    public ResponseEntity<List<CityResponse>> getCities() {
-        return ResponseEntity.ok(cityService.getAllCities());
+    public ResponseEntity<List<CityResponse>> getCities(WebRequest webRequest) {
+        String version = cityService.getCitiesVersion();
+        String etag = ETags.of(version);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        List<CityResponse> cities = cityService.getAllCities(version);
+        return ResponseEntity.ok()
+                .cacheControl(ETags.REVALIDATE)
+                .eTag(etag)
+                .body(cities);
     }
 }
@@ -11,6 +11,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -25,10 +26,20 @@ public class InstructionLinkController {
     @Operation(summary = "Получить все ссылки на инструкции")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Список ссылок"),
+            @ApiResponse(responseCode = "304", description = "Список не изменился (If-None-Match)"),
             @ApiResponse(responseCode = "401", description = "Не авторизован")
     })
     @GetMapping
-    public ResponseEntity<List<InstructionLinkResponse>> getAllLinks() {
-        return ResponseEntity.ok(instructionLinkService.getAllLinks());
+    public ResponseEntity<List<InstructionLinkResponse>> getAllLinks(WebRequest webRequest) {
+        String version = instructionLinkService.getLinksVersion();
+        String etag = ETags.of(version);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        List<InstructionLinkResponse> links = instructionLinkService.getAllLinks(version);
+        return ResponseEntity.ok()
+                .cacheControl(ETags.REVALIDATE)
+                .eTag(etag)
+                .body(links);
     }
 }
@@ -24,6 +24,7 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 
@@ -46,6 +47,7 @@ public class UserOrderController {
                     description = "Список заказов пользователя",
                     content = @Content(schema = @Schema(implementation = Page.class))
             ),
+            @ApiResponse(responseCode = "304", description = "Список не изменился (If-None-Match)", content = @Content),
             @ApiResponse(responseCode = "401", description = "Пользователь не авторизован", content = @Content),
             @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
     })
@@ -67,11 +69,25 @@ public class UserOrderController {
             @Parameter(description = "Размер страницы")
             @RequestParam(defaultValue = "20") int size,
             @Parameter(description = "Сортировка: CREATED_DESC (сначала новые) или CREATED_ASC (сначала старые)")
-            @RequestParam(defaultValue = "CREATED_DESC") OrderSort sort
+            @RequestParam(defaultValue = "CREATED_DESC") OrderSort sort,
+            @Parameter(description = "Считать общее количество (COUNT). При false возвращается только hasNext")
+            @RequestParam(defaultValue = "true") boolean withTotal,
+            WebRequest webRequest
     ) {
         User user = authService.getUser(jwt);
-        var orders = userOrderService.getMyOrders(user.getId(), text, status, cityId, fromDate, toDate, page, size, sort);
-        return ResponseEntity.ok(new PaginationResponse<>(orders));
+        // версия списка - один агрегатный запрос; при совпадении ETag выборка и маппинг заказов не выполняются
+        String etag = ETags.of(
+                user.getId(), userOrderService.getMyOrdersVersion(user.getId()),
+                text, status, cityId, fromDate, toDate, page, size, sort, withTotal
+        );
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        var orders = userOrderService.getMyOrders(user.getId(), text, status, cityId, fromDate, toDate, page, size, sort, withTotal);
+        return ResponseEntity.ok()
+                .cacheControl(ETags.REVALIDATE)
+                .eTag(etag)
+                .body(new PaginationResponse<>(orders));
     }
 
     @Operation(
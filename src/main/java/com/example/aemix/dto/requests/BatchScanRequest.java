@@ -0,0 +1,14 @@
+package com.example.aemix.dto.requests;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchScanRequest {
+    @NotEmpty(message = "Список трек-кодов не может быть пустым")
+    @Size(max = 1000, message = "Максимальное количество трек-кодов за один запрос: 1000")
+    private List<@NotEmpty(message = "Трек-код не может быть пустым") String> trackCodes;
+}
@@ -9,6 +9,6 @@ import java.util.List;
 @Data
 public class BulkReadyRequest {
     @NotEmpty(message = "Список трек-кодов не может быть пустым")
-    @Size(max = 1000, message = "Максимальное количество заказов за одну операцию: 1000")
+    @Size(max = 20000, message = "Максимальное количество заказов за одну операцию: 20000")
     private List<@NotEmpty(message = "Трек-код не может быть пустым") String> trackCodes;
 }
@@ -16,7 +16,7 @@ public class UploadOrdersRequest {
     private Long cityId;
     
     @NotEmpty(message = "Список заказов не может быть пустым")
-    @Size(max = 10000, message = "Максимальное количество заказов за один импорт: 10000")
+    @Size(max = 500000, message = "Максимальное количество заказов за один импорт: 500000")
     @Valid
     private List<OrderImportItem> orders;
 
@@ -0,0 +1,19 @@
+package com.example.aemix.dto.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchScanResponse {
+    private int total;
+    private int arrived;
+    private int failed;
+    private List<ScanResultResponse> results;
+}
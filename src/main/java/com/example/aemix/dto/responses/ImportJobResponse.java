@@ -0,0 +1,30 @@
+package com.example.aemix.dto.responses;
+
+import com.example.aemix.entities.enums.ImportJobStatus;
+import com.example.aemix.entities.enums.ImportMode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJobResponse {
+    private String id;
+    private ImportMode mode;
+    private ImportJobStatus status;
+    private int processed;
+    private int created;
+    private int skipped;
+    private double rowsPerSecond;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String failureReason;
+    private List<String> errors;
+}
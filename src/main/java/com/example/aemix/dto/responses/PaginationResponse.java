@@ -2,6 +2,7 @@ package com.example.aemix.dto.responses;
 
 import lombok.Data;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -10,16 +11,30 @@ public class PaginationResponse<T> {
     private List<T> content;
     private int page;
     private int size;
-    private long totalElements;
-    private int totalPages;
+    private Long totalElements;
+    private Integer totalPages;
     private boolean last;
+    private boolean hasNext;
+    private Long estimatedTotal;
 
-    public PaginationResponse(Page<T> page) {
-        this.content = page.getContent();
-        this.page = page.getNumber();
-        this.size = page.getSize();
-        this.totalElements = page.getTotalElements();
-        this.totalPages = page.getTotalPages();
-        this.last = page.isLast();
+    public PaginationResponse(Slice<T> slice) {
+        this(slice, null);
+    }
+
+    /**
+     * Для {@link Page} заполняются точные totalElements/totalPages, для {@link Slice} они остаются пустыми,
+     * а вместо них может быть передана оценка количества по статистике таблицы.
+     */
+    public PaginationResponse(Slice<T> slice, Long estimatedTotal) {
+        this.content = slice.getContent();
+        this.page = slice.getNumber();
+        this.size = slice.getSize();
+        this.last = slice.isLast();
+        this.hasNext = slice.hasNext();
+        if (slice instanceof Page<T> page) {
+            this.totalElements = page.getTotalElements();
+            this.totalPages = page.getTotalPages();
+        }
+        this.estimatedTotal = estimatedTotal;
     }
 }
@@ -0,0 +1,23 @@
+package com.example.aemix.dto.responses;
+
+import com.example.aemix.entities.enums.Status;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScanEventResponse {
+    private String trackCode;
+    private Long cityId;
+    private String cityName;
+    private String operator;
+    private Status oldStatus;
+    private Status newStatus;
+    private LocalDateTime scannedAt;
+}
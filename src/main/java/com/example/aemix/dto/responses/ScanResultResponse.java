@@ -0,0 +1,19 @@
+package com.example.aemix.dto.responses;
+
+import com.example.aemix.entities.enums.ScanResult;
+import com.example.aemix.entities.enums.Status;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScanResultResponse {
+    private String trackCode;
+    private ScanResult result;
+    private Status status;
+    private String message;
+}
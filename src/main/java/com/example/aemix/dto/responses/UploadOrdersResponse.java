@@ -15,5 +15,8 @@ public class UploadOrdersResponse {
     private int total;
     private int created;
     private int skipped;
+    // первые OrderImportService.MAX_ERRORS пропущенных строк
     private List<String> errors;
+    // заполняется, если источник оборвался после импорта части заказов
+    private String failureReason;
 }
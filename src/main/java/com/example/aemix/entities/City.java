@@ -10,6 +10,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -23,4 +25,10 @@ public class City {
 
     @Column(nullable = false, length = 100)
     private String name;
+
+    /**
+     * Ставится триггером из V8 при вставке и изменении строки, приложение его не пишет.
+     */
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private LocalDateTime updatedAt;
 }
@@ -6,6 +6,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -34,4 +36,10 @@ public class InstructionLink {
 
     @Column(name = "sort_order", nullable = false)
     private Integer sortOrder;
+
+    /**
+     * Ставится триггером из V8 при вставке и изменении строки, приложение его не пишет.
+     */
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private LocalDateTime updatedAt;
 }
@@ -29,9 +29,6 @@ public class Order {
     @Column(nullable = false)
     private Status status;
 
-    @OneToOne(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
-    private UserOrders userOrders;
-
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "city_id", nullable = false)
     private City city;
@@ -20,7 +20,8 @@ import java.time.LocalDateTime;
 @Table(name = "scan_logs")
 public class ScanLogs {
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "scan_logs_seq")
+    @SequenceGenerator(name = "scan_logs_seq", sequenceName = "scan_logs_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -0,0 +1,8 @@
+package com.example.aemix.entities.enums;
+
+public enum ImportJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,6 @@
+package com.example.aemix.entities.enums;
+
+public enum ImportMode {
+    BATCH,
+    COPY
+}
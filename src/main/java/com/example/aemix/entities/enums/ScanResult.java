@@ -0,0 +1,8 @@
+package com.example.aemix.entities.enums;
+
+public enum ScanResult {
+    ARRIVED,
+    ALREADY_ARRIVED,
+    NOT_FOUND,
+    INVALID_STATUS
+}
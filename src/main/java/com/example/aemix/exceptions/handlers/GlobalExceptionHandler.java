@@ -6,6 +6,7 @@ import com.example.aemix.exceptions.EmailSendException;
 import com.example.aemix.exceptions.RequestValidationException;
 import com.example.aemix.exceptions.ResourceNotFoundException;
 import com.example.aemix.exceptions.TokenGenerationException;
+import com.example.aemix.exceptions.TooManyRequestsException;
 import com.example.aemix.exceptions.UnauthorizedException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
@@ -73,6 +74,11 @@ public class GlobalExceptionHandler {
         return buildResponse(HttpStatus.CONFLICT, ex.getMessage());
     }
 
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Map<String, Object>> handleTooManyRequests(TooManyRequestsException ex) {
+        return buildResponse(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage());
+    }
+
     @ExceptionHandler(DisabledException.class)
     public ResponseEntity<Map<String, Object>> handleDisabledException(DisabledException ex) {
         return buildResponse(HttpStatus.FORBIDDEN, ex.getMessage());
@@ -2,6 +2,7 @@ package com.example.aemix.mappers;
 
 import com.example.aemix.dto.responses.OrderResponse;
 import com.example.aemix.entities.Order;
+import com.example.aemix.entities.UserOrders;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -10,9 +11,18 @@ public interface OrderMapper {
     
     @Mapping(target = "cityId", source = "city.id")
     @Mapping(target = "cityName", source = "city.name")
-    @Mapping(target = "emailOrTelegramUsername", source = "order.userOrders.user.emailOrTelegramId")
+    @Mapping(target = "emailOrTelegramUsername", ignore = true)
     @Mapping(target = "title", ignore = true)
     OrderResponse toDto(Order order);
+
+    @Mapping(target = "trackCode", source = "order.trackCode")
+    @Mapping(target = "status", source = "order.status")
+    @Mapping(target = "cityId", source = "order.city.id")
+    @Mapping(target = "cityName", source = "order.city.name")
+    @Mapping(target = "emailOrTelegramUsername", source = "user.emailOrTelegramId")
+    @Mapping(target = "createdAt", source = "order.createdAt")
+    @Mapping(target = "updatedAt", source = "order.updatedAt")
+    OrderResponse toDto(UserOrders userOrders);
     
     Order toEntity(OrderResponse orderResponse);
 }
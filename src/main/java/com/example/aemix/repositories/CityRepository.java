@@ -2,8 +2,23 @@ package com.example.aemix.repositories;
 
 import com.example.aemix.entities.City;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+
 @Repository
 public interface CityRepository extends JpaRepository<City, Long> {
+
+    /**
+     * Отпечаток списка городов для ETag: удаление меняет количество, вставка и переименование — updated_at (V8).
+     */
+    @Query("SELECT COUNT(c) AS total, MAX(c.updatedAt) AS updatedAt FROM City c")
+    CitiesVersion findVersion();
+
+    interface CitiesVersion {
+        long getTotal();
+
+        LocalDateTime getUpdatedAt();
+    }
 }
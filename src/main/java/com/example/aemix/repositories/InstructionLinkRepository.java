@@ -2,12 +2,26 @@ package com.example.aemix.repositories;
 
 import com.example.aemix.entities.InstructionLink;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface InstructionLinkRepository extends JpaRepository<InstructionLink, Long> {
 
     List<InstructionLink> findAllByOrderBySortOrderAsc();
+
+    /**
+     * Отпечаток списка ссылок для ETag: удаление меняет количество, вставка и изменение — updated_at (V8).
+     */
+    @Query("SELECT COUNT(l) AS total, MAX(l.updatedAt) AS updatedAt FROM InstructionLink l")
+    InstructionLinksVersion findVersion();
+
+    interface InstructionLinksVersion {
+        long getTotal();
+
+        LocalDateTime getUpdatedAt();
+    }
 }
@@ -0,0 +1,42 @@
+package com.example.aemix.repositories;
+
+import java.util.Locale;
+
+/**
+ * Шаблоны для поиска через {@code LOWER(x) LIKE :pattern ESCAPE '!'}.
+ * Шаблон строится заранее и уже в нижнем регистре, чтобы условие совпадало
+ * с выражением триграммного индекса {@code lower(x) gin_trgm_ops}.
+ */
+public final class LikePatterns {
+    public static final char ESCAPE = '!';
+
+    private LikePatterns() {
+    }
+
+    /**
+     * Возвращает {@code %text%} с экранированными спецсимволами или {@code null} для пустого текста.
+     */
+    public static String contains(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        return "%" + escape(text) + "%";
+    }
+
+    /**
+     * Возвращает {@code text%} с экранированными спецсимволами или {@code null} для пустого текста.
+     */
+    public static String startsWith(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        return escape(text) + "%";
+    }
+
+    private static String escape(String text) {
+        return text.trim().toLowerCase(Locale.ROOT)
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+    }
+}
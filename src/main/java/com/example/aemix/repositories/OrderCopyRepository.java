@@ -0,0 +1,163 @@
+package com.example.aemix.repositories;
+
+import com.example.aemix.entities.enums.Status;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk-load заказов через COPY во временную staging-таблицу с последующим set-based слиянием.
+ * Все методы должны вызываться в одной транзакции: staging-таблица удаляется при коммите.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderCopyRepository {
+    private static final String COPY_SQL = "COPY order_import_staging (line_no, track_code) FROM STDIN WITH (FORMAT csv)";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    public StagingWriter openStaging() {
+        jdbcTemplate.execute("""
+                CREATE TEMP TABLE IF NOT EXISTS order_import_staging (
+                    line_no BIGINT NOT NULL,
+                    track_code VARCHAR(255) NOT NULL
+                ) ON COMMIT DROP
+                """);
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            return new StagingWriter(copyIn);
+        } catch (SQLException e) {
+            throw new UncategorizedSQLException("COPY order_import_staging", COPY_SQL, e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Переносит строки staging-таблицы в orders и создает для новых заказов логи сканирования
+     * одним запросом. Пропущенными считаются уже существовавшие заказы и повторы трек-кода в файле;
+     * из них возвращаются только первые {@code skippedLimit} в порядке загрузки.
+     */
+    public MergeResult mergeStaging(Long cityId, Status status, Status logOldStatus, Long userId, LocalDateTime now, int skippedLimit) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        int[] created = {0};
+        List<String> skipped = new ArrayList<>();
+        jdbcTemplate.query("""
+                WITH inserted AS (
+                    INSERT INTO orders (track_code, status, city_id, created_at, updated_at)
+                    SELECT s.track_code, ?, ?, ?, ?
+                    FROM order_import_staging s
+                    ORDER BY s.line_no
+                    ON CONFLICT (track_code) DO NOTHING
+                    RETURNING track_code
+                ), logs AS (
+                    INSERT INTO scan_logs (id, track_code, old_status, new_status, user_id, scanned_at)
+                    SELECT nextval('scan_logs_seq'), i.track_code, ?, ?, ?, ?
+                    FROM inserted i
+                ), skipped AS (
+                    SELECT s.line_no, s.track_code
+                    FROM (
+                        SELECT line_no, track_code,
+                               row_number() OVER (PARTITION BY track_code ORDER BY line_no) AS occurrence
+                        FROM order_import_staging
+                    ) s
+                    WHERE s.occurrence > 1
+                       OR NOT EXISTS (SELECT 1 FROM inserted i WHERE i.track_code = s.track_code)
+                    ORDER BY s.line_no
+                    LIMIT ?
+                )
+                SELECT (SELECT count(*) FROM inserted) AS created, k.track_code
+                FROM (SELECT 1) one
+                LEFT JOIN skipped k ON true
+                ORDER BY k.line_no
+                """,
+                ps -> {
+                    ps.setString(1, status.name());
+                    ps.setLong(2, cityId);
+                    ps.setTimestamp(3, timestamp);
+                    ps.setTimestamp(4, timestamp);
+                    ps.setString(5, logOldStatus.name());
+                    ps.setString(6, status.name());
+                    ps.setLong(7, userId);
+                    ps.setTimestamp(8, timestamp);
+                    ps.setInt(9, skippedLimit);
+                },
+                rs -> {
+                    created[0] = rs.getInt("created");
+                    String trackCode = rs.getString("track_code");
+                    if (trackCode != null) {
+                        skipped.add(trackCode);
+                    }
+                });
+        return new MergeResult(created[0], skipped);
+    }
+
+    public record MergeResult(int created, List<String> skippedSample) {
+    }
+
+    public static class StagingWriter {
+        private final CopyIn copyIn;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(COPY_BUFFER_SIZE);
+        private long lineNo;
+
+        private StagingWriter(CopyIn copyIn) {
+            this.copyIn = copyIn;
+        }
+
+        public void write(String trackCode) {
+            String line = ++lineNo + ",\"" + trackCode.replace("\"", "\"\"") + "\"\n";
+            buffer.writeBytes(line.getBytes(StandardCharsets.UTF_8));
+            if (buffer.size() >= COPY_BUFFER_SIZE) {
+                flushBuffer();
+            }
+        }
+
+        public long end() {
+            flushBuffer();
+            try {
+                return copyIn.endCopy();
+            } catch (SQLException e) {
+                throw new UncategorizedSQLException("COPY order_import_staging", COPY_SQL, e);
+            }
+        }
+
+        public void cancel() {
+            try {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            } catch (SQLException ignored) {
+                // транзакция все равно будет откатена
+            }
+        }
+
+        private void flushBuffer() {
+            if (buffer.size() == 0) {
+                return;
+            }
+            try {
+                copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+                buffer.reset();
+            } catch (SQLException e) {
+                throw new UncategorizedSQLException("COPY order_import_staging", COPY_SQL, e);
+            }
+        }
+    }
+}
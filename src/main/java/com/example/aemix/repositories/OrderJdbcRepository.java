@@ -0,0 +1,113 @@
+package com.example.aemix.repositories;
+
+import com.example.aemix.entities.enums.Status;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based операции над таблицей orders в обход Hibernate.
+ * Используется там, где построчная работа через JPA слишком дорогая (импорт, массовые операции).
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderJdbcRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Вставляет заказы одним запросом и возвращает трек-коды, которые действительно были созданы.
+     * Уже существующие трек-коды пропускаются без ошибки.
+     */
+    public List<String> insertOrders(Collection<String> trackCodes, Long cityId, Status status, LocalDateTime now) {
+        if (trackCodes.isEmpty()) {
+            return List.of();
+        }
+        Timestamp timestamp = Timestamp.valueOf(now);
+        return jdbcTemplate.query("""
+                INSERT INTO orders (track_code, status, city_id, created_at, updated_at)
+                SELECT t.track_code, ?, ?, ?, ?
+                FROM unnest(?::varchar[]) AS t(track_code)
+                ON CONFLICT (track_code) DO NOTHING
+                RETURNING track_code
+                """,
+                ps -> {
+                    ps.setString(1, status.name());
+                    ps.setLong(2, cityId);
+                    ps.setTimestamp(3, timestamp);
+                    ps.setTimestamp(4, timestamp);
+                    ps.setArray(5, ps.getConnection().createArrayOf("varchar", trackCodes.toArray()));
+                },
+                (rs, rowNum) -> rs.getString(1));
+    }
+
+    /**
+     * Условно переводит заказы из статуса {@code from} в {@code to} одним UPDATE.
+     * Возвращает заказы, статус которых действительно изменился, вместе с городом.
+     */
+    public List<TransitionedOrder> transitionStatuses(Collection<String> trackCodes, Status from, Status to, LocalDateTime now) {
+        if (trackCodes.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query("""
+                UPDATE orders o
+                SET status = ?, updated_at = ?
+                FROM cities c
+                WHERE c.id = o.city_id AND o.track_code = ANY (?) AND o.status = ?
+                RETURNING o.track_code, c.id, c.name
+                """,
+                ps -> {
+                    ps.setString(1, to.name());
+                    ps.setTimestamp(2, Timestamp.valueOf(now));
+                    ps.setArray(3, ps.getConnection().createArrayOf("varchar", trackCodes.toArray()));
+                    ps.setString(4, from.name());
+                },
+                (rs, rowNum) -> new TransitionedOrder(rs.getString(1), rs.getLong(2), rs.getString(3)));
+    }
+
+    /**
+     * Переводит все заказы города из {@code from} в {@code to} и пишет логи сканирования
+     * одним выражением. Возвращает переведенные заказы вместе с городом.
+     */
+    public List<TransitionedOrder> transitionCity(Long cityId, Status from, Status to, Long userId, LocalDateTime now) {
+        return jdbcTemplate.query("""
+                WITH moved AS (
+                    UPDATE orders
+                    SET status = ?, updated_at = ?
+                    WHERE city_id = ? AND status = ?
+                    RETURNING track_code, city_id
+                ), logged AS (
+                    INSERT INTO scan_logs (id, track_code, old_status, new_status, user_id, scanned_at)
+                    SELECT nextval('scan_logs_seq'), track_code, ?, ?, ?, ?
+                    FROM moved
+                )
+                SELECT m.track_code, c.id, c.name
+                FROM moved m
+                JOIN cities c ON c.id = m.city_id
+                """,
+                (rs, rowNum) -> new TransitionedOrder(rs.getString(1), rs.getLong(2), rs.getString(3)),
+                to.name(), Timestamp.valueOf(now), cityId, from.name(),
+                from.name(), to.name(), userId, Timestamp.valueOf(now));
+    }
+
+    public Map<String, Status> findStatuses(Collection<String> trackCodes) {
+        Map<String, Status> statuses = new HashMap<>();
+        if (trackCodes.isEmpty()) {
+            return statuses;
+        }
+        jdbcTemplate.query(
+                "SELECT track_code, status FROM orders WHERE track_code = ANY (?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", trackCodes.toArray())),
+                rs -> statuses.put(rs.getString(1), Status.valueOf(rs.getString(2))));
+        return statuses;
+    }
+
+    public record TransitionedOrder(String trackCode, Long cityId, String cityName) {
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.aemix.repositories;
+
+import com.example.aemix.dto.responses.OrderResponse;
+import com.example.aemix.entities.City;
+import com.example.aemix.entities.Order;
+import com.example.aemix.entities.User;
+import com.example.aemix.entities.UserOrders;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Выборка заказов сразу в {@link OrderResponse} одним SELECT с соединениями city, user_orders и users.
+ * Заказ и его владелец не связаны ассоциацией, поэтому user_orders присоединяется как сущность по условию ON.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderProjectionRepository {
+    private final EntityManager entityManager;
+
+    public List<OrderResponse> findOrderResponses(Specification<Order> spec, Sort sort, long offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderResponse> query = cb.createQuery(OrderResponse.class);
+        Root<Order> root = query.from(Order.class);
+        Join<Order, City> city = root.join("city");
+        Join<Order, UserOrders> userOrders = root.join(UserOrders.class, JoinType.LEFT);
+        userOrders.on(cb.equal(userOrders.get("order"), root));
+        Join<UserOrders, User> user = userOrders.join("user", JoinType.LEFT);
+
+        query.select(cb.construct(
+                OrderResponse.class,
+                root.<String>get("trackCode"),
+                root.get("status"),
+                city.<Long>get("id"),
+                city.<String>get("name"),
+                user.<String>get("emailOrTelegramId"),
+                root.<LocalDateTime>get("createdAt"),
+                root.<LocalDateTime>get("updatedAt"),
+                cb.nullLiteral(String.class)
+        ));
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int) offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -1,40 +1,45 @@
 package com.example.aemix.repositories;
 
+import com.example.aemix.dto.responses.OrderResponse;
 import com.example.aemix.entities.Order;
 import com.example.aemix.entities.enums.Status;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Optional;
 
-public interface OrderRepository extends JpaRepository<Order, String> {
+public interface OrderRepository extends JpaRepository<Order, String>, JpaSpecificationExecutor<Order> {
     
     Optional<Order> findByTrackCode(String trackCode);
     
-    List<Order> findByCityIdAndStatus(Long cityId, Status status);
-    
-    List<Order> findByTrackCodeInAndStatus(List<String> trackCodes, Status status);
-
+    @Modifying
     @Query("""
-    SELECT o FROM Order o
-    LEFT JOIN o.city c
-    WHERE (CAST(:trackCode AS string) IS NULL OR LOWER(o.trackCode) LIKE LOWER(CONCAT(CAST(:trackCode AS string), '%')))
-      AND (CAST(:status AS string) IS NULL OR o.status = :status)
-      AND (CAST(:cityId AS long) IS NULL OR c.id = :cityId)
-      AND (CAST(:fromDate AS localdatetime) IS NULL OR o.createdAt >= :fromDate)
-      AND (CAST(:toDate AS localdatetime) IS NULL OR o.createdAt <= :toDate)
+    UPDATE Order o
+    SET o.status = :newStatus, o.updatedAt = :now
+    WHERE o.trackCode = :trackCode AND o.status = :expectedStatus
     """)
-    Page<Order> findOrders(
+    int transitionStatus(
             @Param("trackCode") String trackCode,
-            @Param("status") Status status,
-            @Param("cityId") Long cityId,
-            @Param("fromDate") LocalDateTime fromDate,
-            @Param("toDate") LocalDateTime toDate,
-            Pageable pageable
+            @Param("expectedStatus") Status expectedStatus,
+            @Param("newStatus") Status newStatus,
+            @Param("now") LocalDateTime now
     );
+
+    @Query("SELECT o.status FROM Order o WHERE o.trackCode = :trackCode")
+    Optional<Status> findStatusByTrackCode(@Param("trackCode") String trackCode);
+
+    // ответ сканера: только orders и cities, владелец заказа на скане не нужен
+    @Query("""
+    SELECT new com.example.aemix.dto.responses.OrderResponse(
+        o.trackCode, o.status, c.id, c.name, CAST(NULL AS String), o.createdAt, o.updatedAt, CAST(NULL AS String)
+    )
+    FROM Order o
+    JOIN o.city c
+    WHERE o.trackCode = :trackCode
+    """)
+    Optional<OrderResponse> findScanResponse(@Param("trackCode") String trackCode);
 }
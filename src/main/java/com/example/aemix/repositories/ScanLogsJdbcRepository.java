@@ -0,0 +1,65 @@
+package com.example.aemix.repositories;
+
+import com.example.aemix.entities.enums.Status;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Пакетная запись логов сканирования через JDBC batch.
+ * Идентификаторы берутся из той же последовательности, что использует Hibernate для {@code ScanLogs}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ScanLogsJdbcRepository {
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void batchInsert(Collection<String> trackCodes, Status oldStatus, Status newStatus, Long userId, LocalDateTime scannedAt) {
+        if (trackCodes.isEmpty()) {
+            return;
+        }
+        Timestamp timestamp = Timestamp.valueOf(scannedAt);
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO scan_logs (id, track_code, old_status, new_status, user_id, scanned_at)
+                VALUES (nextval('scan_logs_seq'), ?, ?, ?, ?, ?)
+                """,
+                trackCodes,
+                BATCH_SIZE,
+                (ps, trackCode) -> {
+                    ps.setString(1, trackCode);
+                    ps.setString(2, oldStatus.name());
+                    ps.setString(3, newStatus.name());
+                    ps.setLong(4, userId);
+                    ps.setTimestamp(5, timestamp);
+                });
+    }
+
+    public void batchInsert(List<ScanLogRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO scan_logs (id, track_code, old_status, new_status, user_id, scanned_at)
+                VALUES (nextval('scan_logs_seq'), ?, ?, ?, ?, ?)
+                """,
+                rows,
+                BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setString(1, row.trackCode());
+                    ps.setString(2, row.oldStatus().name());
+                    ps.setString(3, row.newStatus().name());
+                    ps.setLong(4, row.userId());
+                    ps.setTimestamp(5, Timestamp.valueOf(row.scannedAt()));
+                });
+    }
+
+    public record ScanLogRow(String trackCode, Status oldStatus, Status newStatus, Long userId, LocalDateTime scannedAt) {
+    }
+}
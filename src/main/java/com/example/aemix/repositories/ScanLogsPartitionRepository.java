@@ -0,0 +1,107 @@
+package com.example.aemix.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * DDL месячных секций scan_logs (миграция V6). Имена секций - scan_logs_YYYY_MM,
+ * отсоединённые по сроку хранения - scan_logs_archive_YYYY_MM.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ScanLogsPartitionRepository {
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern PARTITION_NAME = Pattern.compile("scan_logs_(\\d{4}_\\d{2})");
+    private static final long LOCK_KEY = 7_125_305_482L;
+    private static final String DEFAULT_PARTITION = "scan_logs_default";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Транзакционная advisory-блокировка: обслуживание секций выполняет только один экземпляр приложения.
+     */
+    public boolean tryLock() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, LOCK_KEY));
+    }
+
+    /**
+     * Месяцы присоединённых секций; DEFAULT-секция и таблицы с другими именами пропускаются.
+     */
+    public List<YearMonth> findPartitionMonths() {
+        return jdbcTemplate.queryForList("""
+                SELECT c.relname
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'scan_logs'::regclass
+                """, String.class)
+                .stream()
+                .map(name -> {
+                    Matcher matcher = PARTITION_NAME.matcher(name);
+                    return matcher.matches() ? YearMonth.parse(matcher.group(1), NAME_FORMAT) : null;
+                })
+                .filter(Objects::nonNull)
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * Создает секцию месяца отдельной таблицей, переносит в нее строки этого месяца, уже попавшие
+     * в scan_logs_default, и присоединяет ее. Возвращает число перенесенных строк.
+     * ATTACH берет на scan_logs только SHARE UPDATE EXCLUSIVE, вставки в другие секции не ждут;
+     * scan_logs_default блокируется ACCESS EXCLUSIVE на время проверки, что в ней не осталось строк месяца -
+     * пока default пуста, это мгновенно. Временный CHECK избавляет от проверки самой новой секции.
+     */
+    public int createPartition(YearMonth month) {
+        String name = partitionName(month);
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE scan_logs INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                + " WHERE scanned_at >= ? AND scanned_at < ? RETURNING *) INSERT INTO " + name
+                + " SELECT * FROM moved", from.atStartOfDay(), to.atStartOfDay());
+        jdbcTemplate.execute("ALTER TABLE " + name + " ADD CONSTRAINT " + name + "_range CHECK (scanned_at >= '"
+                + from + "' AND scanned_at < '" + to + "')");
+        jdbcTemplate.execute("ALTER TABLE scan_logs ATTACH PARTITION " + name
+                + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        jdbcTemplate.execute("ALTER TABLE " + name + " DROP CONSTRAINT " + name + "_range");
+        return moved;
+    }
+
+    /**
+     * Строки в scan_logs_default: их появление значит, что секция месяца не была создана вовремя.
+     */
+    public long countDefaultRows() {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM " + DEFAULT_PARTITION, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Отсоединяет секцию и переименовывает её в архивную; данные остаются в БД до ручной выгрузки.
+     */
+    public void detachPartition(YearMonth month) {
+        jdbcTemplate.execute("ALTER TABLE scan_logs DETACH PARTITION " + partitionName(month));
+        jdbcTemplate.execute("ALTER TABLE " + partitionName(month) + " RENAME TO " + archiveName(month));
+    }
+
+    public void dropPartition(YearMonth month) {
+        jdbcTemplate.execute("DROP TABLE " + partitionName(month));
+    }
+
+    public static String partitionName(YearMonth month) {
+        return "scan_logs_" + month.format(NAME_FORMAT);
+    }
+
+    public static String archiveName(YearMonth month) {
+        return "scan_logs_archive_" + month.format(NAME_FORMAT);
+    }
+}
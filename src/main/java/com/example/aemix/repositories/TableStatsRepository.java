@@ -0,0 +1,41 @@
+package com.example.aemix.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Оценка количества строк по статистике планировщика (pg_class.reltuples) вместо COUNT(*).
+ */
+@Repository
+@RequiredArgsConstructor
+public class TableStatsRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Возвращает оценку или {@code null}, если статистика по таблице еще не собрана.
+     * У секционированной таблицы (scan_logs) своей статистики нет, суммируются её секции.
+     */
+    public Long estimateRowCount(String table) {
+        List<Long> estimates = jdbcTemplate.queryForList("""
+                SELECT CASE WHEN p.relkind = 'p'
+                            THEN (SELECT sum(c.reltuples) FILTER (WHERE c.reltuples >= 0)
+                                  FROM pg_inherits i
+                                  JOIN pg_class c ON c.oid = i.inhrelid
+                                  WHERE i.inhparent = p.oid)::bigint
+                            ELSE p.reltuples::bigint
+                       END
+                FROM pg_class p
+                WHERE p.oid = to_regclass(?)
+                """,
+                Long.class,
+                table
+        );
+        if (estimates.isEmpty() || estimates.getFirst() == null || estimates.getFirst() < 0) {
+            return null;
+        }
+        return estimates.getFirst();
+    }
+}
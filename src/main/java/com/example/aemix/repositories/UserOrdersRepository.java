@@ -1,12 +1,9 @@
 package com.example.aemix.repositories;
 
-import com.example.aemix.entities.User;
 import com.example.aemix.entities.UserOrders;
-import com.example.aemix.entities.enums.Status;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -16,74 +13,59 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserOrdersRepository extends JpaRepository<UserOrders, Long> {
+public interface UserOrdersRepository extends JpaRepository<UserOrders, Long>, JpaSpecificationExecutor<UserOrders> {
     
     Optional<UserOrders> findByOrderTrackCode(String trackCode);
     
     boolean existsByOrderTrackCode(String trackCode);
     
+    /**
+     * Сумма счётчиков из user_order_counters: чтение по первичному ключу вместо JOIN и COUNT.
+     * Счётчики поддерживают триггеры на orders и user_orders (миграция V5).
+     */
     @Query(value = """
-    SELECT uo FROM UserOrders uo
-    LEFT JOIN uo.order o
-    LEFT JOIN o.city c
-    WHERE uo.user.id = :userId
-      AND (CAST(:text AS string) IS NULL OR LOWER(o.trackCode) LIKE LOWER(CONCAT('%', CAST(:text AS string), '%')) OR LOWER(uo.title) LIKE LOWER(CONCAT('%', CAST(:text AS string), '%')))
-      AND (CAST(:status AS string) IS NULL OR o.status = :status)
-      AND (CAST(:cityId AS long) IS NULL OR c.id = :cityId)
-      AND (CAST(:fromDate AS localdatetime) IS NULL OR o.createdAt >= :fromDate)
-      AND (CAST(:toDate AS localdatetime) IS NULL OR o.createdAt <= :toDate)
-    """,
-    countQuery = """
-    SELECT COUNT(uo) FROM UserOrders uo
-    LEFT JOIN uo.order o
-    LEFT JOIN o.city c
-    WHERE uo.user.id = :userId
-      AND (CAST(:text AS string) IS NULL OR LOWER(o.trackCode) LIKE LOWER(CONCAT('%', CAST(:text AS string), '%')) OR LOWER(uo.title) LIKE LOWER(CONCAT('%', CAST(:text AS string), '%')))
-      AND (CAST(:status AS string) IS NULL OR o.status = :status)
-      AND (CAST(:cityId AS long) IS NULL OR c.id = :cityId)
-      AND (CAST(:fromDate AS localdatetime) IS NULL OR o.createdAt >= :fromDate)
-      AND (CAST(:toDate AS localdatetime) IS NULL OR o.createdAt <= :toDate)
-    """)
-    Page<UserOrders> findUserOrders(
+        SELECT COALESCE(SUM(c.order_count), 0)
+        FROM user_order_counters c
+        WHERE c.user_id = :userId
+          AND c.status IN (:statuses)
+    """, nativeQuery = true)
+    long sumOrderCounters(
             @Param("userId") Long userId,
-            @Param("text") String text,
-            @Param("status") Status status,
-            @Param("cityId") Long cityId,
-            @Param("fromDate") LocalDateTime fromDate,
-            @Param("toDate") LocalDateTime toDate,
-            Pageable pageable
+            @Param("statuses") List<String> statuses
     );
 
+    /**
+     * Отпечаток списка заказов пользователя для ETag: меняется при привязке заказа,
+     * смене статуса (orders.updated_at), изменении названия (user_orders.updated_at)
+     * и переименовании города заказа (cities.updated_at).
+     */
     @Query("""
-        SELECT COUNT(uo) FROM UserOrders uo
+        SELECT COUNT(uo) AS total, MAX(o.updatedAt) AS ordersUpdatedAt, MAX(uo.updatedAt) AS linksUpdatedAt,
+               MAX(c.updatedAt) AS citiesUpdatedAt
+        FROM UserOrders uo
         JOIN uo.order o
+        JOIN o.city c
         WHERE uo.user.id = :userId
-          AND o.status IN (:statuses)
     """)
-    long countByUserIdAndOrderStatusIn(
-            @Param("userId") Long userId,
-            @Param("statuses") List<Status> statuses
-    );
+    UserOrdersVersion findVersionByUserId(@Param("userId") Long userId);
 
-    @Query(
-            value = """
-        SELECT uo
-        FROM UserOrders uo
-        LEFT JOIN uo.order o
-        LEFT JOIN o.city c
-        WHERE uo.user = :user
-        """,
-            countQuery = """
-        SELECT COUNT(uo)
-        FROM UserOrders uo
-        LEFT JOIN uo.order o
-        LEFT JOIN o.city c
-        WHERE uo.user = :user
-        """
-    )
-    Page<UserOrders> findUserOrdersByUser(
-            @Param("user") User user,
-            Pageable pageable
-    );
+    /**
+     * Сверяет user_order_counters с user_orders и orders для пользователей с id в [fromUserId, toUserId)
+     * (функция из миграции V7), возвращает число исправленных строк.
+     */
+    @Query(value = "SELECT reconcile_user_order_counters(:fromUserId, :toUserId)", nativeQuery = true)
+    int reconcileOrderCounters(@Param("fromUserId") long fromUserId, @Param("toUserId") long toUserId);
+
+    @Query(value = "SELECT COALESCE(MAX(id), 0) FROM users", nativeQuery = true)
+    long findMaxUserId();
+
+    interface UserOrdersVersion {
+        long getTotal();
+
+        LocalDateTime getOrdersUpdatedAt();
+
+        LocalDateTime getLinksUpdatedAt();
 
+        LocalDateTime getCitiesUpdatedAt();
+    }
 }
@@ -0,0 +1,74 @@
+package com.example.aemix.repositories.specifications;
+
+import com.example.aemix.entities.Order;
+import com.example.aemix.entities.enums.Status;
+import com.example.aemix.repositories.LikePatterns;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Фильтры поиска заказов. В запрос попадают только переданные условия.
+ */
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    public static Specification<Order> filter(
+            String trackCode,
+            Status status,
+            Long cityId,
+            LocalDateTime fromDate,
+            LocalDateTime toDate
+    ) {
+        List<Specification<Order>> specs = new ArrayList<>();
+        String trackCodePattern = LikePatterns.startsWith(trackCode);
+        if (trackCodePattern != null) {
+            specs.add((root, query, cb) ->
+                    cb.like(cb.lower(root.<String>get("trackCode")), trackCodePattern, LikePatterns.ESCAPE));
+        }
+        if (status != null) {
+            specs.add((root, query, cb) -> cb.equal(root.get("status"), status));
+        }
+        if (cityId != null) {
+            specs.add((root, query, cb) -> cb.equal(root.get("city").get("id"), cityId));
+        }
+        if (fromDate != null) {
+            specs.add((root, query, cb) -> cb.greaterThanOrEqualTo(root.<LocalDateTime>get("createdAt"), fromDate));
+        }
+        if (toDate != null) {
+            specs.add((root, query, cb) -> cb.lessThanOrEqualTo(root.<LocalDateTime>get("createdAt"), toDate));
+        }
+        return Specification.allOf(specs);
+    }
+
+    /**
+     * Заказы строго после позиции {@code (createdAt, trackCode)}.
+     * Дополнительное условие {@code createdAt >= :createdAt} задает границу диапазона для индекса.
+     */
+    public static Specification<Order> after(LocalDateTime createdAt, String trackCode) {
+        return (root, query, cb) -> cb.and(
+                cb.greaterThanOrEqualTo(root.<LocalDateTime>get("createdAt"), createdAt),
+                cb.or(
+                        cb.greaterThan(root.<LocalDateTime>get("createdAt"), createdAt),
+                        cb.greaterThan(root.<String>get("trackCode"), trackCode)
+                )
+        );
+    }
+
+    /**
+     * Заказы строго до позиции {@code (createdAt, trackCode)}.
+     */
+    public static Specification<Order> before(LocalDateTime createdAt, String trackCode) {
+        return (root, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(root.<LocalDateTime>get("createdAt"), createdAt),
+                cb.or(
+                        cb.lessThan(root.<LocalDateTime>get("createdAt"), createdAt),
+                        cb.lessThan(root.<String>get("trackCode"), trackCode)
+                )
+        );
+    }
+}
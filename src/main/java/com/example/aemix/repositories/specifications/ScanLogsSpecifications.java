@@ -0,0 +1,47 @@
+package com.example.aemix.repositories.specifications;
+
+import com.example.aemix.entities.ScanLogs;
+import com.example.aemix.entities.enums.Status;
+import com.example.aemix.repositories.LikePatterns;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Фильтры логов сканирования. В запрос попадают только переданные условия.
+ */
+public final class ScanLogsSpecifications {
+
+    private ScanLogsSpecifications() {
+    }
+
+    public static Specification<ScanLogs> filter(
+            String operator,
+            Long cityId,
+            Status status,
+            LocalDateTime fromDate,
+            LocalDateTime toDate
+    ) {
+        List<Specification<ScanLogs>> specs = new ArrayList<>();
+        String operatorPattern = LikePatterns.contains(operator);
+        if (operatorPattern != null) {
+            specs.add((root, query, cb) ->
+                    cb.like(cb.lower(root.get("user").<String>get("emailOrTelegramId")), operatorPattern, LikePatterns.ESCAPE));
+        }
+        if (cityId != null) {
+            specs.add((root, query, cb) -> cb.equal(root.get("order").get("city").get("id"), cityId));
+        }
+        if (status != null) {
+            specs.add((root, query, cb) -> cb.equal(root.get("newStatus"), status));
+        }
+        if (fromDate != null) {
+            specs.add((root, query, cb) -> cb.greaterThanOrEqualTo(root.<LocalDateTime>get("scannedAt"), fromDate));
+        }
+        if (toDate != null) {
+            specs.add((root, query, cb) -> cb.lessThanOrEqualTo(root.<LocalDateTime>get("scannedAt"), toDate));
+        }
+        return Specification.allOf(specs);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.aemix.repositories.specifications;
+
+import com.example.aemix.entities.UserOrders;
+import com.example.aemix.entities.enums.Status;
+import com.example.aemix.repositories.LikePatterns;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Фильтры списка заказов пользователя. В запрос попадают только переданные условия.
+ */
+public final class UserOrdersSpecifications {
+
+    private UserOrdersSpecifications() {
+    }
+
+    public static Specification<UserOrders> filter(
+            Long userId,
+            String text,
+            Status status,
+            Long cityId,
+            LocalDateTime fromDate,
+            LocalDateTime toDate
+    ) {
+        List<Specification<UserOrders>> specs = new ArrayList<>();
+        specs.add((root, query, cb) -> cb.equal(root.get("user").get("id"), userId));
+
+        String pattern = LikePatterns.contains(text);
+        if (pattern != null) {
+            specs.add((root, query, cb) -> cb.or(
+                    cb.like(cb.lower(root.get("order").<String>get("trackCode")), pattern, LikePatterns.ESCAPE),
+                    cb.like(cb.lower(root.<String>get("title")), pattern, LikePatterns.ESCAPE)
+            ));
+        }
+        if (status != null) {
+            specs.add((root, query, cb) -> cb.equal(root.get("order").get("status"), status));
+        }
+        if (cityId != null) {
+            specs.add((root, query, cb) -> cb.equal(root.get("order").get("city").get("id"), cityId));
+        }
+        if (fromDate != null) {
+            specs.add((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("order").<LocalDateTime>get("createdAt"), fromDate));
+        }
+        if (toDate != null) {
+            specs.add((root, query, cb) -> cb.lessThanOrEqualTo(root.get("order").<LocalDateTime>get("createdAt"), toDate));
+        }
+        return Specification.allOf(specs);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.aemix.repositories.specifications;
+
+import com.example.aemix.entities.User;
+import com.example.aemix.entities.enums.Role;
+import com.example.aemix.repositories.LikePatterns;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Фильтры списка пользователей. В запрос попадают только переданные условия.
+ */
+public final class UserSpecifications {
+
+    private UserSpecifications() {
+    }
+
+    public static Specification<User> filter(String text, Role role, Boolean isVerified) {
+        List<Specification<User>> specs = new ArrayList<>();
+        String pattern = LikePatterns.contains(text);
+        if (pattern != null) {
+            specs.add((root, query, cb) ->
+                    cb.like(cb.lower(root.<String>get("emailOrTelegramId")), pattern, LikePatterns.ESCAPE));
+        }
+        if (role != null) {
+            specs.add((root, query, cb) -> cb.equal(root.get("role"), role));
+        }
+        if (isVerified != null) {
+            specs.add((root, query, cb) -> cb.equal(root.get("isVerified"), isVerified));
+        }
+        return Specification.allOf(specs);
+    }
+}
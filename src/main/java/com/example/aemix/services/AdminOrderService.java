@@ -1,42 +1,54 @@
 package com.example.aemix.services;
 
 import com.example.aemix.dto.requests.UploadOrdersRequest;
+import com.example.aemix.dto.responses.CityResponse;
+import com.example.aemix.dto.responses.CursorPageResponse;
 import com.example.aemix.dto.responses.OrderResponse;
 import com.example.aemix.dto.responses.UploadOrdersResponse;
-import com.example.aemix.entities.City;
 import com.example.aemix.entities.Order;
-import com.example.aemix.entities.ScanLogs;
 import com.example.aemix.entities.User;
 import com.example.aemix.entities.enums.OrderSort;
 import com.example.aemix.entities.enums.Status;
-import com.example.aemix.exceptions.ResourceNotFoundException;
-import com.example.aemix.mappers.OrderMapper;
-import com.example.aemix.repositories.CityRepository;
+import com.example.aemix.exceptions.RequestValidationException;
+import com.example.aemix.repositories.OrderProjectionRepository;
 import com.example.aemix.repositories.OrderRepository;
-import com.example.aemix.repositories.AdminScanLogsRepository;
+import com.example.aemix.repositories.TableStatsRepository;
+import com.example.aemix.repositories.specifications.OrderSpecifications;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AdminOrderService {
+    public static final int SYNC_UPLOAD_LIMIT = 10000;
+
     private final OrderRepository orderRepository;
-    private final OrderMapper orderMapper;
-    private final AdminScanLogsRepository scanLogsRepository;
-    private final CityRepository cityRepository;
+    private final CityService cityService;
+    private final OrderImportService orderImportService;
+    private final OrderXlsxReader orderXlsxReader;
+    private final OrderJsonStreamReader orderJsonStreamReader;
+    private final OrderProjectionRepository orderProjectionRepository;
+    private final TableStatsRepository tableStatsRepository;
 
-    public Page<OrderResponse> getOrders(
+    public Slice<OrderResponse> getOrders(
             String trackCode,
             Status status,
             Long cityId,
@@ -44,7 +56,8 @@ public class AdminOrderService {
             LocalDateTime toDate,
             int page,
             int size,
-            OrderSort orderSort
+            OrderSort orderSort,
+            boolean withTotal
     ) {
         Sort sort;
         if (orderSort == null || orderSort == OrderSort.CREATED_DESC) {
@@ -56,69 +69,124 @@ public class AdminOrderService {
         }
 
         Pageable pageable = PageRequest.of(page, size, sort);
-        return orderRepository.findOrders(trackCode, status, cityId, fromDate, toDate, pageable)
-                .map(orderMapper::toDto);
+        Specification<Order> spec = OrderSpecifications.filter(trackCode, status, cityId, fromDate, toDate);
+        if (withTotal) {
+            List<OrderResponse> content = orderProjectionRepository.findOrderResponses(spec, sort, pageable.getOffset(), size);
+            return PageableExecutionUtils.getPage(content, pageable, () -> orderRepository.count(spec));
+        }
+
+        List<OrderResponse> rows = orderProjectionRepository.findOrderResponses(spec, sort, pageable.getOffset(), size + 1);
+        boolean hasNext = rows.size() > size;
+        return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, pageable, hasNext);
+    }
+
+    /**
+     * Оценка общего количества заказов по статистике таблицы. Имеет смысл только без фильтров.
+     */
+    public Long estimateOrdersTotal(String trackCode, Status status, Long cityId, LocalDateTime fromDate, LocalDateTime toDate) {
+        if (trackCode != null || status != null || cityId != null || fromDate != null || toDate != null) {
+            return null;
+        }
+        return tableStatsRepository.estimateRowCount("orders");
+    }
+
+    /**
+     * Keyset-пагинация по {@code (createdAt, trackCode)}: стоимость страницы не зависит от ее глубины,
+     * общее количество не считается.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<OrderResponse> getOrdersByCursor(
+            String trackCode,
+            Status status,
+            Long cityId,
+            LocalDateTime fromDate,
+            LocalDateTime toDate,
+            String cursor,
+            int size,
+            OrderSort orderSort
+    ) {
+        OrderCursor position = OrderCursor.decode(cursor);
+        boolean backward = position != null && position.backward();
+        boolean descending = orderSort != OrderSort.CREATED_ASC;
+        boolean seekBefore = descending != backward;
+
+        Specification<Order> spec = OrderSpecifications.filter(trackCode, status, cityId, fromDate, toDate);
+        if (position != null) {
+            spec = spec.and(seekBefore
+                    ? OrderSpecifications.before(position.createdAt(), position.trackCode())
+                    : OrderSpecifications.after(position.createdAt(), position.trackCode()));
+        }
+        Sort seekSort = seekBefore
+                ? Sort.by(Sort.Direction.DESC, "createdAt", "trackCode")
+                : Sort.by(Sort.Direction.ASC, "createdAt", "trackCode");
+        List<OrderResponse> rows = orderProjectionRepository.findOrderResponses(spec, seekSort, 0, size + 1);
+
+        boolean more = rows.size() > size;
+        List<OrderResponse> orders = new ArrayList<>(more ? rows.subList(0, size) : rows);
+        if (backward) {
+            Collections.reverse(orders);
+        }
 
+        boolean hasNext = backward || more;
+        boolean hasPrevious = backward ? more : position != null;
+        return CursorPageResponse.<OrderResponse>builder()
+                .content(orders)
+                .size(size)
+                .hasNext(hasNext)
+                .hasPrevious(hasPrevious)
+                .nextCursor(hasNext && !orders.isEmpty() ? OrderCursor.after(orders.getLast()).encode() : null)
+                .prevCursor(hasPrevious && !orders.isEmpty() ? OrderCursor.before(orders.getFirst()).encode() : null)
+                .build();
     }
 
     @Transactional
     public UploadOrdersResponse uploadOrders(UploadOrdersRequest request, User user) {
-        City city = cityRepository.findById(request.getCityId())
-                .orElseThrow(() -> new ResourceNotFoundException("Город с ID " + request.getCityId() + " не найден"));
-
-        int total = request.getOrders().size();
-        int created = 0;
-        int skipped = 0;
-        List<String> errors = new ArrayList<>();
+        if (request.getOrders().size() > SYNC_UPLOAD_LIMIT) {
+            throw new RequestValidationException(
+                    "Максимальное количество заказов за один синхронный импорт: " + SYNC_UPLOAD_LIMIT + ". Используйте фоновый импорт"
+            );
+        }
+        CityResponse city = cityService.getCity(request.getCityId());
 
+        OrderImportService.ImportSession session = orderImportService.openSession(city.getId(), user);
         for (UploadOrdersRequest.OrderImportItem item : request.getOrders()) {
-            try {
-                String trackCode = item.getTrackCode();
-                if (trackCode == null || trackCode.trim().isEmpty()) {
-                    skipped++;
-                    errors.add("Пустой трек-код");
-                    continue;
-                }
+            session.add(item.getTrackCode());
+        }
+        return session.finish();
+    }
 
-                if (orderRepository.findByTrackCode(trackCode.trim()).isPresent()) {
-                    skipped++;
-                    errors.add(trackCode + " - заказ уже существует");
-                    continue;
-                }
+    @Transactional
+    public UploadOrdersResponse uploadOrdersXlsx(Long cityId, MultipartFile file, boolean hasHeader, User user) {
+        CityResponse city = cityService.getCity(cityId);
 
-                Order order = Order.builder()
-                        .trackCode(trackCode.trim())
-                        .status(Status.INTERNATIONAL_SHIPPING)
-                        .city(city)
-                        .build();
-                order = orderRepository.save(order);
-                orderRepository.flush();
-                
-                order = orderRepository.findByTrackCode(trackCode.trim())
-                        .orElseThrow(() -> new RuntimeException("Заказ не найден после сохранения"));
-
-                ScanLogs scanLog = ScanLogs.builder()
-                        .order(order)
-                        .oldStatus(Status.UNKNOWN)
-                        .newStatus(Status.INTERNATIONAL_SHIPPING)
-                        .user(user)
-                        .build();
-                scanLogsRepository.save(scanLog);
-
-                created++;
-            } catch (Exception e) {
-                log.error("Ошибка при импорте заказа {}: {}", item.getTrackCode(), e.getMessage());
-                skipped++;
-                errors.add(item.getTrackCode() + " - " + e.getMessage());
-            }
+        Path tempFile = orderXlsxReader.spool(file);
+        try {
+            OrderImportService.ImportSession session = orderImportService.openSession(city.getId(), user);
+            orderXlsxReader.read(tempFile, hasHeader, trackCode -> {
+                // весь файл импортируется в одной транзакции, поэтому лимит тот же, что у синхронного JSON
+                if (session.getTotal() >= SYNC_UPLOAD_LIMIT) {
+                    throw new RequestValidationException(
+                            "Максимальное количество заказов за один синхронный импорт: " + SYNC_UPLOAD_LIMIT
+                                    + ". Используйте фоновый импорт /import-jobs/xlsx"
+                    );
+                }
+                session.add(trackCode);
+            });
+            return session.finish();
+        } finally {
+            orderXlsxReader.delete(tempFile);
         }
+    }
 
-        log.info("Импорт заказов: всего {}, создано {}, пропущено {}", total, created, skipped);
-        return UploadOrdersResponse.builder()
-                .total(total)
-                .created(created)
-                .skipped(skipped)
-                .errors(errors.isEmpty() ? null : errors)
-                .build();
+    /**
+     * Импорт с потоковым разбором тела запроса. Чанки коммитятся по мере чтения,
+     * поэтому ограничение синхронного импорта здесь не действует.
+     */
+    public UploadOrdersResponse uploadOrdersStream(InputStream body, Long cityId, User user) {
+        OrderImportService.ImportSession session = orderJsonStreamReader.read(body, cityId, id -> {
+            CityResponse city = cityService.getCity(id);
+            return orderImportService.openChunkedSession(city.getId(), user);
+        });
+        return session.finish();
     }
 }
@@ -5,11 +5,15 @@ import com.example.aemix.entities.ScanLogs;
 import com.example.aemix.mappers.ScanLogsMapper;
 import com.example.aemix.entities.enums.Status;
 import com.example.aemix.repositories.AdminScanLogsRepository;
+import com.example.aemix.repositories.SpecificationSliceRepository;
+import com.example.aemix.repositories.TableStatsRepository;
+import com.example.aemix.repositories.specifications.ScanLogsSpecifications;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -20,26 +24,35 @@ public class AdminScanLogsService {
 
     private final AdminScanLogsRepository scanLogsRepository;
     private final ScanLogsMapper scanLogsMapper;
+    private final SpecificationSliceRepository specificationSliceRepository;
+    private final TableStatsRepository tableStatsRepository;
 
-    public Page<ScanLogsResponse> getScanLogs(
+    public Slice<ScanLogsResponse> getScanLogs(
             String operator,
             Long cityId,
             Status status,
             LocalDateTime fromDate,
             LocalDateTime toDate,
             int page,
-            int size
+            int size,
+            boolean withTotal
     ) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "scannedAt"));
-        Page<ScanLogs> eventsPage = scanLogsRepository.findLogs(
-                operator,
-                cityId,
-                status,
-                fromDate,
-                toDate,
-                pageable
-        );
-        return eventsPage.map(scanLogsMapper::toDto);
+        Specification<ScanLogs> spec = ScanLogsSpecifications.filter(operator, cityId, status, fromDate, toDate);
+        Slice<ScanLogs> events = withTotal
+                ? scanLogsRepository.findAll(spec, pageable)
+                : specificationSliceRepository.findSlice(ScanLogs.class, spec, pageable, "order.city", "user");
+        return events.map(scanLogsMapper::toDto);
+    }
+
+    /**
+     * Оценка общего количества логов по статистике таблицы. Имеет смысл только без фильтров.
+     */
+    public Long estimateScanLogsTotal(String operator, Long cityId, Status status, LocalDateTime fromDate, LocalDateTime toDate) {
+        if (operator != null || cityId != null || status != null || fromDate != null || toDate != null) {
+            return null;
+        }
+        return tableStatsRepository.estimateRowCount("scan_logs");
     }
 }
 
@@ -1,97 +1,187 @@
 package com.example.aemix.services;
 
 import com.example.aemix.dto.requests.BulkReadyRequest;
+import com.example.aemix.dto.responses.BatchScanResponse;
 import com.example.aemix.dto.responses.BulkOperationResponse;
 import com.example.aemix.dto.responses.OrderResponse;
-import com.example.aemix.entities.Order;
-import com.example.aemix.entities.ScanLogs;
+import com.example.aemix.dto.responses.ScanEventResponse;
+import com.example.aemix.dto.responses.ScanResultResponse;
 import com.example.aemix.entities.User;
+import com.example.aemix.entities.enums.ScanResult;
 import com.example.aemix.entities.enums.Status;
 import com.example.aemix.exceptions.BusinessValidationException;
 import com.example.aemix.exceptions.ResourceNotFoundException;
-import com.example.aemix.mappers.OrderMapper;
-import com.example.aemix.repositories.AdminScanLogsRepository;
+import com.example.aemix.repositories.CityRepository;
+import com.example.aemix.repositories.OrderJdbcRepository;
+import com.example.aemix.repositories.OrderJdbcRepository.TransitionedOrder;
 import com.example.aemix.repositories.OrderRepository;
+import com.example.aemix.services.RecentScanCache.RecentScan;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AdminScanService {
     private final OrderRepository orderRepository;
-    private final AdminScanLogsRepository scanLogsRepository;
-    private final OrderMapper orderMapper;
+    private final CityRepository cityRepository;
+    private final OrderJdbcRepository orderJdbcRepository;
+    private final ScanLogWriter scanLogWriter;
+    private final ScanFeedService scanFeedService;
+    private final RecentScanCache recentScanCache;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
     public OrderResponse scanArrived(String trackCode, User user) {
-        Order order = orderRepository.findByTrackCode(trackCode)
-                .orElseThrow(() -> new ResourceNotFoundException("Заказ с трек-кодом " + trackCode + " не найден"));
+        RecentScan recent = recentScanCache.find(user.getId(), trackCode);
+        if (recent != null) {
+            return recent.response() != null
+                    ? recent.response()
+                    : orderRepository.findScanResponse(trackCode)
+                            .orElseThrow(() -> new ResourceNotFoundException("Заказ с трек-кодом " + trackCode + " не найден"));
+        }
+        return transactionTemplate.execute(status -> transitionArrived(trackCode, user));
+    }
+
+    private OrderResponse transitionArrived(String trackCode, User user) {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = orderRepository.transitionStatus(
+                trackCode, Status.INTERNATIONAL_SHIPPING, Status.ARRIVED, now
+        );
 
-        if (order.getStatus() != Status.INTERNATIONAL_SHIPPING) {
+        if (updated == 0) {
+            Status currentStatus = orderRepository.findStatusByTrackCode(trackCode)
+                    .orElseThrow(() -> new ResourceNotFoundException("Заказ с трек-кодом " + trackCode + " не найден"));
             throw new BusinessValidationException(
-                    "Заказ должен иметь статус INTERNATIONAL_SHIPPING. Текущий статус: " + order.getStatus()
+                    "Заказ должен иметь статус INTERNATIONAL_SHIPPING. Текущий статус: " + currentStatus
             );
         }
 
-        Status oldStatus = order.getStatus();
-        order.setStatus(Status.ARRIVED);
-        orderRepository.save(order);
+        scanLogWriter.write(List.of(trackCode), Status.INTERNATIONAL_SHIPPING, Status.ARRIVED, user.getId(), now);
 
-        ScanLogs scanLog = ScanLogs.builder()
-                .order(order)
-                .oldStatus(oldStatus)
+        OrderResponse response = orderRepository.findScanResponse(trackCode)
+                .orElseThrow(() -> new ResourceNotFoundException("Заказ с трек-кодом " + trackCode + " не найден"));
+        scanFeedService.publish(List.of(ScanEventResponse.builder()
+                .trackCode(trackCode)
+                .cityId(response.getCityId())
+                .cityName(response.getCityName())
+                .operator(user.getEmailOrTelegramId())
+                .oldStatus(Status.INTERNATIONAL_SHIPPING)
                 .newStatus(Status.ARRIVED)
-                .user(user)
-                .build();
-        scanLogsRepository.save(scanLog);
+                .scannedAt(now)
+                .build()));
+
+        recentScanCache.remember(user.getId(), trackCode, response);
 
-        log.info("Заказ {} отсканирован: {} -> {} пользователем {}", trackCode, oldStatus, Status.ARRIVED, user.getEmailOrTelegramId());
-        return orderMapper.toDto(order);
+        log.info("Заказ {} отсканирован: {} -> {} пользователем {}",
+                trackCode, Status.INTERNATIONAL_SHIPPING, Status.ARRIVED, user.getEmailOrTelegramId());
+        return response;
     }
 
-    @Transactional
-    public BulkOperationResponse bulkReady(BulkReadyRequest request, User user) {
-        List<String> trackCodes = request.getTrackCodes();
-        List<Order> orders = orderRepository.findByTrackCodeInAndStatus(trackCodes, Status.ARRIVED);
-
-        int updated = 0;
-        List<String> errors = new ArrayList<>();
-        List<String> processedTrackCodes = new ArrayList<>();
-
-        for (Order order : orders) {
-            try {
-                Status oldStatus = order.getStatus();
-                order.setStatus(Status.READY);
-                orderRepository.save(order);
-
-                ScanLogs scanLog = ScanLogs.builder()
-                        .order(order)
-                        .oldStatus(oldStatus)
-                        .newStatus(Status.READY)
-                        .user(user)
-                        .build();
-                scanLogsRepository.save(scanLog);
-
-                updated++;
-                processedTrackCodes.add(order.getTrackCode());
-            } catch (Exception e) {
-                log.error("Ошибка при обновлении заказа {}: {}", order.getTrackCode(), e.getMessage());
-                errors.add(order.getTrackCode());
+    public BatchScanResponse scanArrivedBatch(List<String> trackCodes, User user) {
+        Set<String> uniqueTrackCodes = new LinkedHashSet<>();
+        for (String trackCode : trackCodes) {
+            uniqueTrackCodes.add(trackCode.trim());
+        }
+
+        Set<String> repeated = new HashSet<>();
+        List<String> toScan = new ArrayList<>(uniqueTrackCodes.size());
+        for (String trackCode : uniqueTrackCodes) {
+            if (recentScanCache.find(user.getId(), trackCode) != null) {
+                repeated.add(trackCode);
+            } else {
+                toScan.add(trackCode);
             }
         }
 
-        for (String trackCode : trackCodes) {
-            if (!processedTrackCodes.contains(trackCode) && !errors.contains(trackCode)) {
-                errors.add(trackCode);
+        List<String> arrived = new ArrayList<>();
+        List<String> rejected = new ArrayList<>();
+        Map<String, Status> currentStatuses = new HashMap<>();
+        if (!toScan.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                arrived.addAll(transition(toScan, Status.INTERNATIONAL_SHIPPING, Status.ARRIVED, user, LocalDateTime.now()));
+                recentScanCache.rememberAll(user.getId(), arrived);
+
+                Set<String> transitioned = new HashSet<>(arrived);
+                toScan.stream()
+                        .filter(trackCode -> !transitioned.contains(trackCode))
+                        .forEach(rejected::add);
+                currentStatuses.putAll(orderJdbcRepository.findStatuses(rejected));
+            });
+        }
+
+        Set<String> arrivedSet = new HashSet<>(arrived);
+
+        List<ScanResultResponse> results = new ArrayList<>(uniqueTrackCodes.size());
+        for (String trackCode : uniqueTrackCodes) {
+            if (repeated.contains(trackCode)) {
+                results.add(ScanResultResponse.builder()
+                        .trackCode(trackCode)
+                        .result(ScanResult.ALREADY_ARRIVED)
+                        .status(Status.ARRIVED)
+                        .build());
+                continue;
+            }
+            if (arrivedSet.contains(trackCode)) {
+                results.add(ScanResultResponse.builder()
+                        .trackCode(trackCode)
+                        .result(ScanResult.ARRIVED)
+                        .status(Status.ARRIVED)
+                        .build());
+                continue;
             }
+
+            Status current = currentStatuses.get(trackCode);
+            results.add(current == null
+                    ? ScanResultResponse.builder()
+                            .trackCode(trackCode)
+                            .result(ScanResult.NOT_FOUND)
+                            .message("Заказ с трек-кодом " + trackCode + " не найден")
+                            .build()
+                    : ScanResultResponse.builder()
+                            .trackCode(trackCode)
+                            .result(ScanResult.INVALID_STATUS)
+                            .status(current)
+                            .message("Заказ должен иметь статус INTERNATIONAL_SHIPPING. Текущий статус: " + current)
+                            .build());
         }
 
+        log.info("Пакетное сканирование пользователем {}: отсканировано {}, повторов {}, отклонено {}",
+                user.getEmailOrTelegramId(), arrived.size(), repeated.size(), rejected.size());
+        return BatchScanResponse.builder()
+                .total(uniqueTrackCodes.size())
+                .arrived(arrived.size() + repeated.size())
+                .failed(rejected.size())
+                .results(results)
+                .build();
+    }
+
+    @Transactional
+    public BulkOperationResponse bulkReady(BulkReadyRequest request, User user) {
+        List<String> trackCodes = request.getTrackCodes();
+        Set<String> uniqueTrackCodes = new LinkedHashSet<>(trackCodes);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<String> processedTrackCodes = transition(uniqueTrackCodes, Status.ARRIVED, Status.READY, user, now);
+
+        Set<String> processed = new HashSet<>(processedTrackCodes);
+        List<String> errors = uniqueTrackCodes.stream()
+                .filter(trackCode -> !processed.contains(trackCode))
+                .toList();
+
+        int updated = processedTrackCodes.size();
         log.info("Массовое обновление заказов: обновлено {}, ошибок {}", updated, errors.size());
         return BulkOperationResponse.builder()
                 .total(trackCodes.size())
@@ -100,4 +190,49 @@ public class AdminScanService {
                 .errors(errors)
                 .build();
     }
+
+    @Transactional
+    public BulkOperationResponse markCityReady(Long cityId, User user) {
+        if (!cityRepository.existsById(cityId)) {
+            throw new ResourceNotFoundException("Город с ID " + cityId + " не найден");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<TransitionedOrder> transitioned = orderJdbcRepository.transitionCity(cityId, Status.ARRIVED, Status.READY, user.getId(), now);
+        publish(transitioned, Status.ARRIVED, Status.READY, user, now);
+
+        int updated = transitioned.size();
+
+        log.info("Город {} переведен в READY пользователем {}: обновлено {}", cityId, user.getEmailOrTelegramId(), updated);
+        return BulkOperationResponse.builder()
+                .total(updated)
+                .updated(updated)
+                .skipped(0)
+                .errors(List.of())
+                .build();
+    }
+
+    private List<String> transition(Collection<String> trackCodes, Status from, Status to, User user, LocalDateTime now) {
+        List<TransitionedOrder> transitioned = orderJdbcRepository.transitionStatuses(trackCodes, from, to, now);
+        List<String> transitionedTrackCodes = transitioned.stream()
+                .map(TransitionedOrder::trackCode)
+                .toList();
+        scanLogWriter.write(transitionedTrackCodes, from, to, user.getId(), now);
+        publish(transitioned, from, to, user, now);
+        return transitionedTrackCodes;
+    }
+
+    private void publish(List<TransitionedOrder> transitioned, Status from, Status to, User user, LocalDateTime now) {
+        scanFeedService.publish(transitioned.stream()
+                .map(order -> ScanEventResponse.builder()
+                        .trackCode(order.trackCode())
+                        .cityId(order.cityId())
+                        .cityName(order.cityName())
+                        .operator(user.getEmailOrTelegramId())
+                        .oldStatus(from)
+                        .newStatus(to)
+                        .scannedAt(now)
+                        .build())
+                .toList());
+    }
 }
@@ -2,24 +2,27 @@ package com.example.aemix.services;
 
 import com.example.aemix.dto.requests.UserUpdateRequest;
 import com.example.aemix.dto.responses.AdminUserResponse;
-import com.example.aemix.dto.responses.OrderResponse;
 import com.example.aemix.dto.responses.PaginationResponse;
 import com.example.aemix.dto.responses.UserResponse;
-import com.example.aemix.entities.Order;
 import com.example.aemix.entities.User;
 import com.example.aemix.entities.UserOrders;
 import com.example.aemix.entities.enums.Role;
 import com.example.aemix.exceptions.ResourceNotFoundException;
 import com.example.aemix.mappers.OrderMapper;
 import com.example.aemix.mappers.UserMapper;
+import com.example.aemix.repositories.SpecificationSliceRepository;
+import com.example.aemix.repositories.TableStatsRepository;
 import com.example.aemix.repositories.UserOrdersRepository;
 import com.example.aemix.repositories.UserRepository;
+import com.example.aemix.repositories.specifications.UserOrdersSpecifications;
+import com.example.aemix.repositories.specifications.UserSpecifications;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
@@ -28,21 +31,41 @@ import org.springframework.web.server.ResponseStatusException;
 @RequiredArgsConstructor
 @Slf4j
 public class AdminUserService {
+    // сначала SUPER_ADMIN, затем ADMIN и USER, внутри роли - новые пользователи первыми
+    private static final Sort USERS_SORT = Sort.by(Sort.Order.asc("roleRank"), Sort.Order.desc("createdAt"));
+    private static final Sort USER_ORDERS_SORT = Sort.by(Sort.Direction.DESC, "order.createdAt");
+
     private final UserRepository userRepository;
     private final UserOrdersRepository userOrdersRepository;
     private final UserMapper userMapper;
     private final OrderMapper orderMapper;
+    private final SpecificationSliceRepository specificationSliceRepository;
+    private final TableStatsRepository tableStatsRepository;
 
-    public Page<UserResponse> getUsers(
+    public Slice<UserResponse> getUsers(
             String text,
             Role role,
             Boolean isVerified,
             int page,
-            int size
+            int size,
+            boolean withTotal
     ) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        return userRepository.findUsers(text, role, isVerified, pageable)
-                .map(userMapper::toDto);
+        Pageable pageable = PageRequest.of(page, size, USERS_SORT);
+        Specification<User> spec = UserSpecifications.filter(text, role, isVerified);
+        Slice<User> users = withTotal
+                ? userRepository.findAll(spec, pageable)
+                : specificationSliceRepository.findSlice(User.class, spec, pageable);
+        return users.map(userMapper::toDto);
+    }
+
+    /**
+     * Оценка общего количества пользователей по статистике таблицы. Имеет смысл только без фильтров.
+     */
+    public Long estimateUsersTotal(String text, Role role, Boolean isVerified) {
+        if (text != null || role != null || isVerified != null) {
+            return null;
+        }
+        return tableStatsRepository.estimateRowCount("users");
     }
 
     public UserResponse updateUser(String emailOrTelegramId, UserUpdateRequest request) {
@@ -65,11 +88,14 @@ public class AdminUserService {
         userRepository.delete(user);
     }
 
-    public AdminUserResponse getUser(String emailOrTelegramId, int page, int size) {
+    public AdminUserResponse getUser(String emailOrTelegramId, int page, int size, boolean withTotal) {
         User user = userRepository.findByIdentifier(emailOrTelegramId).orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        Pageable pageable = PageRequest.of(page, size);
-        Page<UserOrders> userOrdersPage = userOrdersRepository.findUserOrdersByUser(user, pageable);
+        Pageable pageable = PageRequest.of(page, size, USER_ORDERS_SORT);
+        Specification<UserOrders> spec = UserOrdersSpecifications.filter(user.getId(), null, null, null, null, null);
+        Slice<UserOrders> userOrdersPage = withTotal
+                ? userOrdersRepository.findAll(spec, pageable)
+                : specificationSliceRepository.findSlice(UserOrders.class, spec, pageable);
 
         String emailOrTelegramUsername = emailOrTelegramId;
         if(user.getTelegramUser()!=null && !user.getTelegramUser().getTelegramUsername().isEmpty()){
@@ -79,12 +105,7 @@ public class AdminUserService {
         AdminUserResponse adminUserResponse = AdminUserResponse.builder()
                 .emailOrTelegramUsername(emailOrTelegramUsername)
                 .role(user.getRole())
-                .orders(new PaginationResponse<>(userOrdersPage.map(userOrder -> {
-                    Order order = userOrder.getOrder();
-                    OrderResponse response = orderMapper.toDto(order);
-                    response.setTitle(userOrder.getTitle());
-                    return response;
-                })))
+                .orders(new PaginationResponse<>(userOrdersPage.map(orderMapper::toDto)))
                 .build();
 
         return  adminUserResponse;
@@ -1,14 +1,18 @@
 package com.example.aemix.services;
 
+import com.example.aemix.config.CacheConfig;
 import com.example.aemix.dto.responses.CityResponse;
+import com.example.aemix.exceptions.ResourceNotFoundException;
 import com.example.aemix.mappers.CityMapper;
 import com.example.aemix.repositories.CityRepository;
+import com.example.aemix.repositories.CityRepository.CitiesVersion;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -18,11 +22,40 @@ public class CityService {
 
     private final CityRepository cityRepository;
 
-    public List<CityResponse> getAllCities() {
+    /**
+     * Версия списка городов для ETag: COUNT и MAX(updated_at) без чтения самих строк.
+     */
+    public String getCitiesVersion() {
+        CitiesVersion version = cityRepository.findVersion();
+        return version.getTotal() + ":" + version.getUpdatedAt();
+    }
+
+    /**
+     * Список городов для версии из {@link #getCitiesVersion()}. Версия входит в ключ кэша,
+     * поэтому после правки городов в БД новый ETag не отдается вместе со старым списком из кэша.
+     */
+    @Cacheable(cacheNames = CacheConfig.CITIES, key = "#version")
+    public List<CityResponse> getAllCities(String version) {
         return cityRepository.findAll()
                 .stream()
                 .map(cityMapper::toDto)
-                .collect(Collectors.toList());
+                .toList();
+    }
+
+    /**
+     * Город по ID из кэша. Кэшируется DTO, а не сущность: один экземпляр отдается всем потокам,
+     * а отсоединенная сущность не должна попадать в ассоциации новых заказов.
+     * Отсутствующий город не кэшируется, исключение летит при каждом обращении.
+     */
+    @Cacheable(CacheConfig.CITY_BY_ID)
+    public CityResponse getCity(Long cityId) {
+        return cityRepository.findById(cityId)
+                .map(cityMapper::toDto)
+                .orElseThrow(() -> new ResourceNotFoundException("Город с ID " + cityId + " не найден"));
     }
-}
 
+    @CacheEvict(cacheNames = {CacheConfig.CITIES, CacheConfig.CITY_BY_ID}, allEntries = true)
+    public void evictCache() {
+        log.info("Кэш городов сброшен");
+    }
+}
@@ -1,18 +1,21 @@
 package com.example.aemix.services;
 
+import com.example.aemix.config.CacheConfig;
 import com.example.aemix.dto.requests.UpdateInstructionLinkRequest;
 import com.example.aemix.dto.responses.InstructionLinkResponse;
 import com.example.aemix.entities.InstructionLink;
 import com.example.aemix.exceptions.ResourceNotFoundException;
 import com.example.aemix.repositories.InstructionLinkRepository;
+import com.example.aemix.repositories.InstructionLinkRepository.InstructionLinksVersion;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -69,14 +72,28 @@ public class InstructionLinkService {
         }
     }
 
-    public List<InstructionLinkResponse> getAllLinks() {
+    /**
+     * Версия списка ссылок для ETag: COUNT и MAX(updated_at) без чтения самих строк.
+     */
+    public String getLinksVersion() {
+        InstructionLinksVersion version = instructionLinkRepository.findVersion();
+        return version.getTotal() + ":" + version.getUpdatedAt();
+    }
+
+    /**
+     * Список ссылок для версии из {@link #getLinksVersion()}; версия входит в ключ кэша,
+     * чтобы новый ETag не отдавался вместе со старым списком.
+     */
+    @Cacheable(cacheNames = CacheConfig.INSTRUCTION_LINKS, key = "#version")
+    public List<InstructionLinkResponse> getAllLinks(String version) {
         return instructionLinkRepository.findAllByOrderBySortOrderAsc()
                 .stream()
                 .map(this::toResponse)
-                .collect(Collectors.toList());
+                .toList();
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.INSTRUCTION_LINKS, allEntries = true)
     public InstructionLinkResponse updateLink(Long id, UpdateInstructionLinkRequest request) {
         InstructionLink link = instructionLinkRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Ссылка с id " + id + " не найдена"));
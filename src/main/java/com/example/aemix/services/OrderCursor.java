@@ -0,0 +1,49 @@
+package com.example.aemix.services;
+
+import com.example.aemix.dto.responses.OrderResponse;
+import com.example.aemix.exceptions.RequestValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Непрозрачный курсор keyset-пагинации заказов: позиция {@code (createdAt, trackCode)}
+ * и направление перехода относительно нее.
+ */
+record OrderCursor(LocalDateTime createdAt, String trackCode, boolean backward) {
+    private static final String SEPARATOR = "|";
+
+    static OrderCursor after(OrderResponse order) {
+        return new OrderCursor(order.getCreatedAt(), order.getTrackCode(), false);
+    }
+
+    static OrderCursor before(OrderResponse order) {
+        return new OrderCursor(order.getCreatedAt(), order.getTrackCode(), true);
+    }
+
+    String encode() {
+        String raw = (backward ? "b" : "f") + SEPARATOR + createdAt + SEPARATOR + trackCode;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Пустой курсор означает первую страницу - возвращается {@code null}.
+     */
+    static OrderCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length != 3 || !(parts[0].equals("f") || parts[0].equals("b"))) {
+                throw new RequestValidationException("Некорректный курсор");
+            }
+            return new OrderCursor(LocalDateTime.parse(parts[1]), parts[2], parts[0].equals("b"));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new RequestValidationException("Некорректный курсор");
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.aemix.services;
+
+import com.example.aemix.dto.requests.UploadOrdersRequest;
+import com.example.aemix.dto.responses.ImportJobResponse;
+import com.example.aemix.dto.responses.UploadOrdersResponse;
+import com.example.aemix.entities.User;
+import com.example.aemix.entities.enums.ImportJobStatus;
+import com.example.aemix.entities.enums.ImportMode;
+import com.example.aemix.exceptions.ResourceNotFoundException;
+import com.example.aemix.exceptions.TooManyRequestsException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Фоновый импорт заказов. Задача выполняется в отдельном пуле потоков,
+ * в режиме BATCH каждый чанк коммитится в собственной транзакции, в режиме COPY - весь импорт целиком.
+ * Прогресс доступен по id задачи.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderImportJobService {
+    private static final Duration FINISHED_JOB_TTL = Duration.ofHours(1);
+
+    @Value("${app.import.job-threads:2}")
+    private int jobThreads;
+
+    // ожидающая JSON-задача держит весь манифест в памяти, поэтому очередь ограничена
+    @Value("${app.import.job-queue-capacity:4}")
+    private int jobQueueCapacity;
+
+    @Value("${app.import.shutdown-timeout-seconds:60}")
+    private long shutdownTimeoutSeconds;
+
+    private final CityService cityService;
+    private final OrderImportService orderImportService;
+    private final OrderXlsxReader orderXlsxReader;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                jobThreads, jobThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(jobQueueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "order-import-" + counter.incrementAndGet());
+                    t.setDaemon(false);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /**
+     * Дает выполняющимся задачам дописать текущий чанк. По истечении таймаута потоки прерываются,
+     * незавершенная задача остается частично импортированной (BATCH) или откатывается (COPY).
+     */
+    @PreDestroy
+    public void stop() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS)) {
+                List<Runnable> dropped = executor.shutdownNow();
+                log.warn("Импорт не завершился за {} с: выполняющиеся задачи прерваны, {} задач из очереди не запущены",
+                        shutdownTimeoutSeconds, dropped.size());
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public ImportJobResponse submit(UploadOrdersRequest request, ImportMode mode, User user) {
+        Long cityId = request.getCityId();
+        cityService.getCity(cityId); // город должен существовать до постановки задачи в очередь
+        List<String> trackCodes = request.getOrders().stream()
+                .map(UploadOrdersRequest.OrderImportItem::getTrackCode)
+                .toList();
+        return submit(cityId, user, mode, session -> session.addAll(trackCodes), null);
+    }
+
+    public ImportJobResponse submitXlsx(Long cityId, MultipartFile file, boolean hasHeader, ImportMode mode, User user) {
+        cityService.getCity(cityId); // город должен существовать до постановки задачи в очередь
+        Path tempFile = orderXlsxReader.spool(file);
+        return submit(cityId, user, mode, session -> orderXlsxReader.read(tempFile, hasHeader, session::add), tempFile);
+    }
+
+    public ImportJobResponse getJob(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Задача импорта " + jobId + " не найдена");
+        }
+        return job.toResponse();
+    }
+
+    private ImportJobResponse submit(Long cityId, User user, ImportMode mode, Consumer<OrderImportService.ImportSession> source, Path tempFile) {
+        pruneFinishedJobs();
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), mode);
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job, cityId, user, source, tempFile));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            orderXlsxReader.delete(tempFile);
+            throw new TooManyRequestsException("Очередь импорта заполнена, повторите попытку позже");
+        }
+
+        log.info("Задача импорта {} поставлена в очередь пользователем {}", job.id, user.getEmailOrTelegramId());
+        return job.toResponse();
+    }
+
+    private void run(ImportJob job, Long cityId, User user, Consumer<OrderImportService.ImportSession> source, Path tempFile) {
+        job.startedAt = LocalDateTime.now();
+        job.status = ImportJobStatus.RUNNING;
+        try {
+            if (job.mode == ImportMode.COPY) {
+                // staging-таблица живет до конца транзакции, поэтому COPY-импорт коммитится целиком
+                transactionTemplate.executeWithoutResult(tx -> runSession(job, orderImportService.openCopySession(cityId, user), source));
+            } else {
+                runSession(job, orderImportService.openChunkedSession(cityId, user), source);
+            }
+            job.status = ImportJobStatus.COMPLETED;
+        } catch (Exception e) {
+            log.error("Задача импорта {} завершилась с ошибкой: {}", job.id, e.getMessage());
+            job.failureReason = e.getMessage();
+            job.status = ImportJobStatus.FAILED;
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            orderXlsxReader.delete(tempFile);
+        }
+    }
+
+    private void runSession(ImportJob job, OrderImportService.ImportSession session, Consumer<OrderImportService.ImportSession> source) {
+        job.session = session;
+        try {
+            source.accept(session);
+            job.result = session.finish();
+        } catch (RuntimeException e) {
+            session.abort();
+            throw e;
+        }
+    }
+
+    private void pruneFinishedJobs() {
+        LocalDateTime threshold = LocalDateTime.now().minus(FINISHED_JOB_TTL);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(threshold));
+    }
+
+    private static class ImportJob {
+        private final String id;
+        private final ImportMode mode;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private volatile ImportJobStatus status = ImportJobStatus.PENDING;
+        private volatile OrderImportService.ImportSession session;
+        private volatile UploadOrdersResponse result;
+        private volatile String failureReason;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+
+        private ImportJob(String id, ImportMode mode) {
+            this.id = id;
+            this.mode = mode;
+        }
+
+        private ImportJobResponse toResponse() {
+            OrderImportService.ImportSession current = session;
+            int processed = current != null ? current.getTotal() : 0;
+            int created = current != null ? current.getCreated() : 0;
+            int skipped = current != null ? current.getSkipped() : 0;
+
+            double rowsPerSecond = 0;
+            if (startedAt != null) {
+                LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+                long millis = Math.max(Duration.between(startedAt, end).toMillis(), 1);
+                rowsPerSecond = processed * 1000.0 / millis;
+            }
+
+            return ImportJobResponse.builder()
+                    .id(id)
+                    .mode(mode)
+                    .status(status)
+                    .processed(processed)
+                    .created(created)
+                    .skipped(skipped)
+                    .rowsPerSecond(rowsPerSecond)
+                    .submittedAt(submittedAt)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .failureReason(failureReason)
+                    .errors(result != null ? result.getErrors() : null)
+                    .build();
+        }
+    }
+}
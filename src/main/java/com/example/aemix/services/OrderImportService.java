@@ -0,0 +1,340 @@
+package com.example.aemix.services;
+
+import com.example.aemix.dto.responses.UploadOrdersResponse;
+import com.example.aemix.entities.User;
+import com.example.aemix.entities.enums.ImportMode;
+import com.example.aemix.entities.enums.Status;
+import com.example.aemix.repositories.OrderCopyRepository;
+import com.example.aemix.repositories.OrderJdbcRepository;
+import com.example.aemix.repositories.ScanLogsJdbcRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Движок импорта заказов: трек-коды накапливаются в чанки,
+ * каждый чанк записывается одним INSERT в orders и одним JDBC batch в scan_logs.
+ * Обычная сессия работает в транзакции вызывающего кода, chunked-сессия коммитит каждый чанк отдельно.
+ * COPY-сессия стримит чанки в staging-таблицу и сливает их с orders при завершении,
+ * поэтому вся сессия должна выполняться в одной транзакции.
+ * Повторы трек-кодов отсекаются внутри чанка, между чанками - через ON CONFLICT DO NOTHING в БД,
+ * поэтому память сессии не растет с размером манифеста.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderImportService {
+    public static final int CHUNK_SIZE = 1000;
+    public static final int MAX_TRACK_CODE_LENGTH = 100;
+    // в ответ попадают только первые ошибки, счетчик skipped учитывает все
+    public static final int MAX_ERRORS = 1000;
+
+    private static final byte VALID = 0;
+    private static final byte EMPTY = 1;
+    private static final byte TOO_LONG = 2;
+    private static final byte DUPLICATE = 3;
+
+    @Value("${app.import.insert-parallelism:4}")
+    private int insertParallelism;
+
+    private final DataSource dataSource;
+    private final OrderJdbcRepository orderJdbcRepository;
+    private final ScanLogsJdbcRepository scanLogsJdbcRepository;
+    private final OrderCopyRepository orderCopyRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private ForkJoinPool validationPool;
+    private ExecutorService insertExecutor;
+
+    @PostConstruct
+    public void start() {
+        validationPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+        // каждый поток вставки держит соединение, поэтому оставляем половину пула Hikari под обычные запросы
+        int threads = insertParallelism;
+        if (dataSource instanceof HikariDataSource hikari) {
+            threads = Math.min(threads, Math.max(1, hikari.getMaximumPoolSize() / 2));
+        }
+        AtomicInteger counter = new AtomicInteger();
+        insertExecutor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "order-import-insert-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        log.info("Импорт заказов: параллельная вставка в {} потоков", threads);
+    }
+
+    @PreDestroy
+    public void stop() {
+        validationPool.shutdown();
+        insertExecutor.shutdown();
+    }
+
+    public ImportSession openSession(Long cityId, User user) {
+        return new ImportSession(cityId, user.getId(), ImportMode.BATCH, false);
+    }
+
+    public ImportSession openChunkedSession(Long cityId, User user) {
+        return new ImportSession(cityId, user.getId(), ImportMode.BATCH, true);
+    }
+
+    public ImportSession openCopySession(Long cityId, User user) {
+        return new ImportSession(cityId, user.getId(), ImportMode.COPY, false);
+    }
+
+    public class ImportSession {
+        private final Long cityId;
+        private final Long userId;
+        private final ImportMode mode;
+        private final boolean commitPerChunk;
+        private final List<String> chunk = new ArrayList<>(CHUNK_SIZE);
+        private final Set<String> chunkCodes = new HashSet<>(CHUNK_SIZE * 2);
+        private final List<String> errors = new ArrayList<>();
+        private String failureReason;
+        private volatile int total;
+        private volatile int created;
+        private volatile int skipped;
+        private OrderCopyRepository.StagingWriter stagingWriter;
+
+        private ImportSession(Long cityId, Long userId, ImportMode mode, boolean commitPerChunk) {
+            this.cityId = cityId;
+            this.userId = userId;
+            this.mode = mode;
+            this.commitPerChunk = commitPerChunk;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getCreated() {
+            return created;
+        }
+
+        public int getSkipped() {
+            return skipped;
+        }
+
+        public void add(String rawTrackCode) {
+            total++;
+            if (rawTrackCode == null || rawTrackCode.trim().isEmpty()) {
+                skip("Пустой трек-код");
+                return;
+            }
+
+            String trackCode = rawTrackCode.trim();
+            if (trackCode.length() > MAX_TRACK_CODE_LENGTH) {
+                skip(trackCode + " - трек-код длиннее " + MAX_TRACK_CODE_LENGTH + " символов");
+                return;
+            }
+            if (!chunkCodes.add(trackCode)) {
+                skip(trackCode + " - заказ уже существует");
+                return;
+            }
+
+            chunk.add(trackCode);
+            if (chunk.size() >= CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        /**
+         * Добавляет весь манифест сразу. Для chunked-сессии трек-коды валидируются параллельно
+         * на fork-join пуле, а чанки вставляются конкурентно в отдельных транзакциях.
+         * В остальных режимах эквивалентно последовательным вызовам {@link #add(String)}.
+         */
+        public void addAll(List<String> rawTrackCodes) {
+            if (!commitPerChunk || mode != ImportMode.BATCH || rawTrackCodes.size() <= CHUNK_SIZE) {
+                rawTrackCodes.forEach(this::add);
+                return;
+            }
+            flush();
+
+            int size = rawTrackCodes.size();
+            String[] trackCodes = new String[size];
+            byte[] verdicts = new byte[size];
+            validationPool.submit(() -> validate(rawTrackCodes, trackCodes, verdicts)).join();
+
+            List<String> valid = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                total++;
+                switch (verdicts[i]) {
+                    case EMPTY -> skip("Пустой трек-код");
+                    case TOO_LONG -> skip(trackCodes[i] + " - трек-код длиннее " + MAX_TRACK_CODE_LENGTH + " символов");
+                    case DUPLICATE -> skip(trackCodes[i] + " - заказ уже существует");
+                    default -> valid.add(trackCodes[i]);
+                }
+            }
+            insertConcurrently(valid);
+        }
+
+        public UploadOrdersResponse finish() {
+            flush();
+            if (stagingWriter != null) {
+                mergeStaging();
+            }
+            log.info("Импорт заказов ({}): всего {}, создано {}, пропущено {}", mode, total, created, skipped);
+            return UploadOrdersResponse.builder()
+                    .total(total)
+                    .created(created)
+                    .skipped(skipped)
+                    .errors(errors.isEmpty() ? null : errors)
+                    .failureReason(failureReason)
+                    .build();
+        }
+
+        /**
+         * Отмечает, что источник оборвался на середине. Уже закоммиченные чанки остаются,
+         * {@link #finish()} дописывает прочитанное и возвращает счетчики вместе с причиной.
+         */
+        public void fail(String reason) {
+            failureReason = reason;
+        }
+
+        /**
+         * Прерывает незавершенный COPY, чтобы соединение можно было откатить.
+         */
+        public void abort() {
+            if (stagingWriter != null) {
+                stagingWriter.cancel();
+            }
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            if (mode == ImportMode.COPY) {
+                stageChunk();
+                return;
+            }
+
+            List<String> inserted = commitPerChunk
+                    ? transactionTemplate.execute(status -> writeChunk(chunk))
+                    : writeChunk(chunk);
+            registerInserted(chunk, inserted);
+            chunk.clear();
+            chunkCodes.clear();
+        }
+
+        private void registerInserted(List<String> trackCodes, List<String> inserted) {
+            created += inserted.size();
+            if (inserted.size() < trackCodes.size()) {
+                Set<String> insertedSet = new HashSet<>(inserted);
+                for (String trackCode : trackCodes) {
+                    if (!insertedSet.contains(trackCode)) {
+                        skip(trackCode + " - заказ уже существует");
+                    }
+                }
+            }
+        }
+
+        private void validate(List<String> rawTrackCodes, String[] trackCodes, byte[] verdicts) {
+            Map<String, Integer> firstOccurrence = new ConcurrentHashMap<>(rawTrackCodes.size());
+            IntStream.range(0, rawTrackCodes.size()).parallel().forEach(i -> {
+                String raw = rawTrackCodes.get(i);
+                String trackCode = raw != null ? raw.trim() : "";
+                trackCodes[i] = trackCode;
+                if (trackCode.isEmpty()) {
+                    verdicts[i] = EMPTY;
+                } else if (trackCode.length() > MAX_TRACK_CODE_LENGTH) {
+                    verdicts[i] = TOO_LONG;
+                } else {
+                    firstOccurrence.merge(trackCode, i, Math::min);
+                }
+            });
+            IntStream.range(0, rawTrackCodes.size()).parallel().forEach(i -> {
+                if (verdicts[i] == VALID && firstOccurrence.get(trackCodes[i]) != i) {
+                    verdicts[i] = DUPLICATE;
+                }
+            });
+        }
+
+        private void insertConcurrently(List<String> trackCodes) {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int from = 0; from < trackCodes.size(); from += CHUNK_SIZE) {
+                List<String> part = trackCodes.subList(from, Math.min(from + CHUNK_SIZE, trackCodes.size()));
+                futures.add(insertExecutor.submit(() -> transactionTemplate.execute(status -> writeChunk(part))));
+            }
+
+            // результаты собираются в порядке чанков, чтобы счетчики и ошибки менял только поток сессии
+            int index = 0;
+            try {
+                for (Future<List<String>> future : futures) {
+                    int from = index * CHUNK_SIZE;
+                    List<String> part = trackCodes.subList(from, Math.min(from + CHUNK_SIZE, trackCodes.size()));
+                    registerInserted(part, future.get());
+                    index++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new IllegalStateException("Импорт прерван", e);
+            } catch (ExecutionException e) {
+                futures.forEach(f -> f.cancel(true));
+                throw e.getCause() instanceof RuntimeException re
+                        ? re
+                        : new IllegalStateException(e.getCause());
+            }
+        }
+
+        private void stageChunk() {
+            if (stagingWriter == null) {
+                stagingWriter = orderCopyRepository.openStaging();
+            }
+            for (String trackCode : chunk) {
+                stagingWriter.write(trackCode);
+            }
+            chunk.clear();
+            chunkCodes.clear();
+        }
+
+        private void mergeStaging() {
+            long staged = stagingWriter.end();
+            OrderCopyRepository.MergeResult result = orderCopyRepository.mergeStaging(
+                    cityId, Status.INTERNATIONAL_SHIPPING, Status.UNKNOWN, userId, LocalDateTime.now(),
+                    Math.max(MAX_ERRORS - errors.size(), 0)
+            );
+            created += result.created();
+            for (String trackCode : result.skippedSample()) {
+                skip(trackCode + " - заказ уже существует");
+            }
+            skipped += (int) staged - result.created() - result.skippedSample().size();
+        }
+
+        private List<String> writeChunk(List<String> trackCodes) {
+            LocalDateTime now = LocalDateTime.now();
+            List<String> inserted = orderJdbcRepository.insertOrders(trackCodes, cityId, Status.INTERNATIONAL_SHIPPING, now);
+            scanLogsJdbcRepository.batchInsert(inserted, Status.UNKNOWN, Status.INTERNATIONAL_SHIPPING, userId, now);
+            return inserted;
+        }
+
+        private void skip(String error) {
+            skipped++;
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(error);
+            }
+        }
+    }
+}
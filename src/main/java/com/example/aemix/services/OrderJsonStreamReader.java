@@ -0,0 +1,104 @@
+package com.example.aemix.services;
+
+import com.example.aemix.exceptions.RequestValidationException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Function;
+
+/**
+ * Потоковый разбор тела {@code UploadOrdersRequest} через Jackson streaming API.
+ * Элементы массива {@code orders} передаются в сессию импорта по мере чтения,
+ * поэтому потребление памяти не зависит от размера манифеста.
+ * Если тело обрывается или ломается после начала импорта, прочитанная часть остается импортированной,
+ * а причина возвращается в {@code failureReason} ответа.
+ */
+@Service
+@Slf4j
+public class OrderJsonStreamReader {
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * @param cityId       ID города из query-параметра; если не задан, берется из поля {@code cityId},
+     *                     которое в этом случае должно идти в теле до {@code orders}
+     * @param openSession  открывает сессию импорта для найденного города
+     */
+    public OrderImportService.ImportSession read(
+            InputStream body,
+            Long cityId,
+            Function<Long, OrderImportService.ImportSession> openSession
+    ) {
+        OrderImportService.ImportSession session = null;
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new RequestValidationException("Тело запроса должно быть JSON объектом");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                if ("cityId".equals(field) && cityId == null && value == JsonToken.VALUE_NUMBER_INT) {
+                    cityId = parser.getLongValue();
+                } else if ("orders".equals(field) && value == JsonToken.START_ARRAY) {
+                    if (cityId == null) {
+                        throw new RequestValidationException("ID города обязателен");
+                    }
+                    session = openSession.apply(cityId);
+                    readOrders(parser, session);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Не удалось разобрать JSON манифест: {}", e.getMessage());
+            if (session == null || session.getTotal() == 0) {
+                throw new RequestValidationException("Некорректный JSON");
+            }
+            // предыдущие чанки уже закоммичены: вместо ошибки возвращаем счетчики и причину обрыва
+            session.fail(describe(e, session.getTotal()));
+            return session;
+        }
+
+        if (session == null || session.getTotal() == 0) {
+            throw new RequestValidationException("Список заказов не может быть пустым");
+        }
+        return session;
+    }
+
+    private static String describe(IOException e, int processed) {
+        String reason = e instanceof JsonProcessingException jpe && jpe.getLocation() != null
+                ? "Некорректный JSON (строка " + jpe.getLocation().getLineNr() + ", столбец "
+                        + jpe.getLocation().getColumnNr() + "): " + jpe.getOriginalMessage()
+                : "Тело запроса оборвалось: " + e.getMessage();
+        return reason + ". Импорт остановлен после " + processed + " заказов";
+    }
+
+    private void readOrders(JsonParser parser, OrderImportService.ImportSession session) throws IOException {
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                session.add(null);
+                continue;
+            }
+
+            String trackCode = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("trackCode".equals(field) && value.isScalarValue()) {
+                    trackCode = parser.getValueAsString();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            session.add(trackCode);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.aemix.services;
+
+import com.example.aemix.exceptions.RequestValidationException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Потоковое чтение трек-кодов из первого листа XLSX через SAX API POI.
+ * Строки листа не накапливаются в памяти: каждый трек-код сразу передается потребителю.
+ * Исключение - таблица общих строк (sharedStrings.xml): POI держит ее в памяти целиком,
+ * а текстовые трек-коды уникальны, поэтому ее размер ограничен app.import.xlsx.max-shared-strings.
+ */
+@Service
+@Slf4j
+public class OrderXlsxReader {
+    private static final int TRACK_CODE_COLUMN = 0;
+
+    @Value("${app.import.xlsx.max-shared-strings:500000}")
+    private int maxSharedStrings;
+
+    /**
+     * Сохраняет загруженный файл во временный: POI читает zip-архив по файлу,
+     * не буферизуя все содержимое в памяти. Удаление файла - на вызывающем коде.
+     */
+    public Path spool(MultipartFile file) {
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile("orders-import-", ".xlsx");
+            file.transferTo(tempFile);
+            return tempFile;
+        } catch (IOException e) {
+            delete(tempFile);
+            throw new RequestValidationException("Не удалось сохранить загруженный файл");
+        }
+    }
+
+    public void delete(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Не удалось удалить временный файл {}: {}", file, e.getMessage());
+        }
+    }
+
+    public void read(Path file, boolean hasHeader, Consumer<String> trackCodeConsumer) {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            checkSharedStrings(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new RequestValidationException("Excel файл не содержит листов");
+            }
+
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(
+                        styles, null, strings, new TrackCodeHandler(hasHeader, trackCodeConsumer), new DataFormatter(), false
+                ));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (IOException | OpenXML4JException | SAXException | ParserConfigurationException | XMLStreamException e) {
+            log.warn("Не удалось прочитать Excel файл: {}", e.getMessage());
+            throw new RequestValidationException("Не удалось прочитать Excel файл");
+        }
+    }
+
+    /**
+     * Считает элементы таблицы общих строк потоково, до ее загрузки в память.
+     * Атрибуту uniqueCount не доверяем: он необязателен и может не совпадать с содержимым.
+     */
+    private void checkSharedStrings(OPCPackage pkg) throws IOException, InvalidFormatException, XMLStreamException {
+        List<PackagePart> parts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+        if (parts.isEmpty()) {
+            return;
+        }
+        try (InputStream in = parts.getFirst().getInputStream()) {
+            XMLStreamReader xml = XMLHelper.newXMLInputFactory().createXMLStreamReader(in);
+            try {
+                int count = 0;
+                while (xml.hasNext()) {
+                    if (xml.next() == XMLStreamConstants.START_ELEMENT && "si".equals(xml.getLocalName())
+                            && ++count > maxSharedStrings) {
+                        throw new RequestValidationException(
+                                "Файл содержит больше " + maxSharedStrings + " уникальных строк. Разбейте его на части"
+                        );
+                    }
+                }
+            } finally {
+                xml.close();
+            }
+        }
+    }
+
+    private static class TrackCodeHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final boolean hasHeader;
+        private final Consumer<String> consumer;
+        private boolean headerSkipped;
+        private String trackCode;
+
+        private TrackCodeHandler(boolean hasHeader, Consumer<String> consumer) {
+            this.hasHeader = hasHeader;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            trackCode = null;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (hasHeader && !headerSkipped) {
+                headerSkipped = true;
+                return;
+            }
+            if (trackCode != null && !trackCode.isBlank()) {
+                consumer.accept(trackCode);
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (cellReference != null && new CellReference(cellReference).getCol() == TRACK_CODE_COLUMN) {
+                trackCode = formattedValue;
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.aemix.services;
+
+import com.example.aemix.dto.responses.OrderResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Недавно отсканированные оператором трек-коды. Сканеры часто отправляют один и тот же код
+ * несколько раз подряд - повтор в пределах окна получает идемпотентный ответ без обращения к БД.
+ * Коды попадают в кэш только после коммита транзакции сканирования.
+ */
+@Component
+public class RecentScanCache {
+    private final long windowNanos;
+    private final Map<Key, RecentScan> entries;
+
+    public RecentScanCache(
+            @Value("${app.scan.dedup-window-ms:2000}") long windowMs,
+            @Value("${app.scan.dedup-max-entries:10000}") int maxEntries
+    ) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.entries = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, RecentScan> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Возвращает недавний скан оператора или {@code null}, если окно истекло.
+     * Ответ внутри {@link RecentScan} может отсутствовать, если код был отсканирован пакетом.
+     */
+    public RecentScan find(Long userId, String trackCode) {
+        Key key = new Key(userId, trackCode);
+        synchronized (entries) {
+            RecentScan recent = entries.get(key);
+            if (recent == null) {
+                return null;
+            }
+            if (System.nanoTime() - recent.scannedAtNanos() > windowNanos) {
+                entries.remove(key);
+                return null;
+            }
+            return recent;
+        }
+    }
+
+    public void remember(Long userId, String trackCode, OrderResponse response) {
+        afterCommit(() -> put(new Key(userId, trackCode), new RecentScan(response, System.nanoTime())));
+    }
+
+    public void rememberAll(Long userId, Collection<String> trackCodes) {
+        if (trackCodes.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> {
+            long now = System.nanoTime();
+            synchronized (entries) {
+                for (String trackCode : trackCodes) {
+                    put(new Key(userId, trackCode), new RecentScan(null, now));
+                }
+            }
+        });
+    }
+
+    private void put(Key key, RecentScan recent) {
+        synchronized (entries) {
+            // Перевставка, чтобы порядок вытеснения соответствовал времени скана
+            entries.remove(key);
+            entries.put(key, recent);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    public record RecentScan(OrderResponse response, long scannedAtNanos) {
+    }
+
+    private record Key(Long userId, String trackCode) {
+    }
+}
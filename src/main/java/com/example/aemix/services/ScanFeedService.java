@@ -0,0 +1,131 @@
+package com.example.aemix.services;
+
+import com.example.aemix.dto.responses.ScanEventResponse;
+import com.example.aemix.entities.enums.Status;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Живая лента сканирований для админских дашбордов (Server-Sent Events).
+ * События рассылаются только после коммита транзакции сканирования,
+ * фильтрация по городу и статусу выполняется на сервере.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScanFeedService {
+    private static final String SCAN_EVENT = "scan";
+
+    @Value("${app.scan-feed.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.scan-feed.heartbeat-seconds:25}")
+    private long heartbeatSeconds;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService dispatcher;
+
+    @PostConstruct
+    public void start() {
+        dispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "scan-feed");
+            t.setDaemon(true);
+            return t;
+        });
+        dispatcher.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscriptions.forEach(subscription -> subscription.emitter().complete());
+        subscriptions.clear();
+        if (dispatcher != null) {
+            dispatcher.shutdownNow();
+        }
+    }
+
+    public SseEmitter subscribe(Long cityId, Status status) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscription subscription = new Subscription(emitter, cityId, status);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        emitter.onError(e -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+
+        try {
+            emitter.send(SseEmitter.event().comment("connected"));
+        } catch (IOException e) {
+            subscriptions.remove(subscription);
+            emitter.completeWithError(e);
+        }
+        log.info("Подключен клиент ленты сканирований (город {}, статус {}), всего {}", cityId, status, subscriptions.size());
+        return emitter;
+    }
+
+    /**
+     * Публикует события сканирования. Внутри транзакции рассылка откладывается до коммита.
+     */
+    public void publish(List<ScanEventResponse> events) {
+        if (events.isEmpty() || subscriptions.isEmpty()) {
+            return;
+        }
+        eventPublisher.publishEvent(new ScanEventsCommitted(events));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScanEventsCommitted(ScanEventsCommitted committed) {
+        dispatcher.execute(() -> dispatch(committed.events()));
+    }
+
+    private void dispatch(List<ScanEventResponse> events) {
+        for (Subscription subscription : subscriptions) {
+            for (ScanEventResponse event : events) {
+                if (!subscription.matches(event)) {
+                    continue;
+                }
+                try {
+                    subscription.emitter().send(SseEmitter.event().name(SCAN_EVENT).data(event));
+                } catch (IOException | IllegalStateException e) {
+                    subscriptions.remove(subscription);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void heartbeat() {
+        for (Subscription subscription : subscriptions) {
+            try {
+                subscription.emitter().send(SseEmitter.event().comment("ping"));
+            } catch (IOException | IllegalStateException e) {
+                subscriptions.remove(subscription);
+            }
+        }
+    }
+
+    public record ScanEventsCommitted(List<ScanEventResponse> events) {
+    }
+
+    private record Subscription(SseEmitter emitter, Long cityId, Status status) {
+        boolean matches(ScanEventResponse event) {
+            return (cityId == null || cityId.equals(event.getCityId()))
+                    && (status == null || status == event.getNewStatus());
+        }
+    }
+}
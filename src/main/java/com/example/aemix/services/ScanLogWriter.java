@@ -0,0 +1,229 @@
+package com.example.aemix.services;
+
+import com.example.aemix.entities.enums.Status;
+import com.example.aemix.exceptions.TooManyRequestsException;
+import com.example.aemix.repositories.ScanLogsJdbcRepository;
+import com.example.aemix.repositories.ScanLogsJdbcRepository.ScanLogRow;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запись логов сканирования. По умолчанию логи пишутся синхронно в транзакции сканирования.
+ * В режиме write-behind строки попадают в ограниченную очередь после коммита и сбрасываются
+ * фоновым потоком пачками - по таймеру или при наборе batch-size строк.
+ * Пачка, которую не удалось записать, повторяется с экспоненциальной задержкой, пока БД не станет доступна;
+ * новые строки ждут за ней в очереди.
+ * Место в очереди резервируется внутри транзакции сканирования без ожидания: поток запроса держит
+ * соединение из пула, и ждать в нем освобождения очереди нельзя - потоку записи самому нужно соединение.
+ * Если места нет, сканирование отклоняется с 429 (reject-when-full) или лог пишется синхронно в той же транзакции.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScanLogWriter {
+    private static final long INITIAL_RETRY_DELAY_MS = 100;
+    private static final long MAX_RETRY_DELAY_MS = 10_000;
+    private static final long SHUTDOWN_TIMEOUT_MS = 30_000;
+
+    @Value("${app.scan-logs.write-behind.enabled:false}")
+    private boolean writeBehind;
+
+    @Value("${app.scan-logs.write-behind.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${app.scan-logs.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.scan-logs.write-behind.queue-capacity:50000}")
+    private int queueCapacity;
+
+    @Value("${app.scan-logs.write-behind.reject-when-full:true}")
+    private boolean rejectWhenFull;
+
+    private final ScanLogsJdbcRepository scanLogsJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private BlockingQueue<ScanLogRow> queue;
+    // разрешения возвращаются только после записи пачки, поэтому строки в очереди и в записи не превышают capacity
+    private Semaphore capacity;
+    // afterCompletion еще привязан к завершенной транзакции, запись из него нужна в отдельной
+    private TransactionTemplate requiresNewTemplate;
+    private Thread flusher;
+    private volatile boolean running;
+    private volatile long shutdownDeadlineNanos;
+
+    @PostConstruct
+    public void start() {
+        if (!writeBehind) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        capacity = new Semaphore(queueCapacity);
+        requiresNewTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        requiresNewTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        running = true;
+        flusher = new Thread(this::flushLoop, "scan-log-flusher");
+        flusher.setDaemon(false);
+        flusher.start();
+        log.info("Логи сканирования пишутся в режиме write-behind: интервал {} мс, пачка {}, очередь {}",
+                flushIntervalMs, batchSize, queueCapacity);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher == null) {
+            return;
+        }
+        shutdownDeadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHUTDOWN_TIMEOUT_MS);
+        running = false;
+        try {
+            flusher.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.error("Не удалось записать {} логов сканирования при остановке", queue.size());
+        }
+    }
+
+    public void write(Collection<String> trackCodes, Status oldStatus, Status newStatus, Long userId, LocalDateTime scannedAt) {
+        if (trackCodes.isEmpty()) {
+            return;
+        }
+        if (!writeBehind) {
+            scanLogsJdbcRepository.batchInsert(trackCodes, oldStatus, newStatus, userId, scannedAt);
+            return;
+        }
+
+        List<ScanLogRow> rows = trackCodes.stream()
+                .map(trackCode -> new ScanLogRow(trackCode, oldStatus, newStatus, userId, scannedAt))
+                .toList();
+        if (!running || rows.size() > queueCapacity) {
+            scanLogsJdbcRepository.batchInsert(rows);
+            return;
+        }
+        if (!capacity.tryAcquire(rows.size())) {
+            if (rejectWhenFull) {
+                throw new TooManyRequestsException("Очередь логов сканирования переполнена, повторите сканирование позже");
+            }
+            log.warn("Очередь логов сканирования переполнена, {} логов записаны синхронно", rows.size());
+            scanLogsJdbcRepository.batchInsert(rows);
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        enqueue(rows);
+                    } else {
+                        capacity.release(rows.size());
+                    }
+                }
+            });
+        } else {
+            enqueue(rows);
+        }
+    }
+
+    // место зарезервировано в write, поэтому offer не блокирует и не отказывает
+    private void enqueue(List<ScanLogRow> rows) {
+        for (ScanLogRow row : rows) {
+            if (!queue.offer(row)) {
+                capacity.release();
+                log.error("Нет места в очереди логов сканирования, лог {} записан синхронно", row.trackCode());
+                requiresNewTemplate.executeWithoutResult(status -> scanLogsJdbcRepository.batchInsert(List.of(row)));
+            }
+        }
+    }
+
+    private void flushLoop() {
+        List<ScanLogRow> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ScanLogRow first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    ScanLogRow next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                stopOnInterrupt();
+            }
+            flush(batch);
+            capacity.release(batch.size());
+            batch.clear();
+        }
+    }
+
+    /**
+     * Пишет пачку, пока не получится. Сдается только при остановке приложения по истечении таймаута,
+     * тогда трек-коды незаписанных логов попадают в лог ошибок.
+     */
+    private void flush(List<ScanLogRow> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long delayMs = INITIAL_RETRY_DELAY_MS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> scanLogsJdbcRepository.batchInsert(batch));
+                if (attempt > 1) {
+                    log.info("Пачка из {} логов сканирования записана с попытки {}", batch.size(), attempt);
+                }
+                return;
+            } catch (Exception e) {
+                log.error("Ошибка записи {} логов сканирования (попытка {}), повтор через {} мс: {}",
+                        batch.size(), attempt, delayMs, e.getMessage());
+            }
+            if (!running && System.nanoTime() - shutdownDeadlineNanos > 0) {
+                log.error("Логи сканирования не записаны до остановки: {}",
+                        batch.stream().map(ScanLogRow::trackCode).toList());
+                return;
+            }
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                stopOnInterrupt();
+            }
+            delayMs = Math.min(delayMs * 2, MAX_RETRY_DELAY_MS);
+        }
+    }
+
+    private void stopOnInterrupt() {
+        if (running) {
+            shutdownDeadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHUTDOWN_TIMEOUT_MS);
+            running = false;
+        }
+    }
+}
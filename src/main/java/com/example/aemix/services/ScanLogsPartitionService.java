@@ -0,0 +1,146 @@
+package com.example.aemix.services;
+
+import com.example.aemix.repositories.ScanLogsPartitionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Обслуживание месячных секций scan_logs: заранее создаёт секции на будущие месяцы
+ * и по сроку хранения отсоединяет (архивирует) или удаляет старые.
+ * Запускается при старте и по расписанию; при нескольких экземплярах работает один.
+ * Строки, попавшие в scan_logs_default до создания секции своего месяца, переносятся в нее,
+ * а непустая default-секция после обслуживания пишется в лог ошибок.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScanLogsPartitionService {
+    private final ScanLogsPartitionRepository partitionRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.scan-logs.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    // 0 - хранить все месяцы
+    @Value("${app.scan-logs.retention.months:0}")
+    private int retentionMonths;
+
+    // false - отсоединить и переименовать в scan_logs_archive_YYYY_MM, true - удалить
+    @Value("${app.scan-logs.retention.drop:false}")
+    private boolean dropExpired;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${app.scan-logs.partitions.cron:0 0 3 * * *}")
+    public void maintain() {
+        maintain(YearMonth.now());
+    }
+
+    /**
+     * Каждая секция создается и отсоединяется в своей транзакции: сбой одного месяца
+     * не откатывает остальные и не останавливает очистку по сроку хранения.
+     */
+    private void maintain(YearMonth current) {
+        for (YearMonth month = current; !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            YearMonth target = month;
+            if (!inLockedTransaction("создать секцию " + ScanLogsPartitionRepository.partitionName(target),
+                    () -> createIfMissing(target))) {
+                return;
+            }
+        }
+
+        if (retentionMonths > 0) {
+            YearMonth oldestKept = current.minusMonths(retentionMonths);
+            List<YearMonth> expired;
+            try {
+                expired = partitionRepository.findPartitionMonths().stream()
+                        .filter(month -> month.isBefore(oldestKept))
+                        .toList();
+            } catch (RuntimeException e) {
+                log.error("Не удалось получить список секций scan_logs", e);
+                return;
+            }
+            for (YearMonth month : expired) {
+                if (!inLockedTransaction("обслужить секцию " + ScanLogsPartitionRepository.partitionName(month),
+                        () -> expire(month))) {
+                    return;
+                }
+            }
+        }
+
+        checkDefaultPartition();
+    }
+
+    /**
+     * Возвращает {@code false}, если секции обслуживает другой экземпляр; ошибка шага только логируется.
+     */
+    private boolean inLockedTransaction(String action, Runnable step) {
+        try {
+            Boolean locked = transactionTemplate.execute(status -> {
+                if (!partitionRepository.tryLock()) {
+                    return false;
+                }
+                step.run();
+                return true;
+            });
+            if (!Boolean.TRUE.equals(locked)) {
+                log.debug("Секции scan_logs обслуживает другой экземпляр");
+                return false;
+            }
+        } catch (RuntimeException e) {
+            log.error("Не удалось {}", action, e);
+        }
+        return true;
+    }
+
+    private void createIfMissing(YearMonth month) {
+        if (partitionRepository.findPartitionMonths().contains(month)) {
+            return;
+        }
+        int moved = partitionRepository.createPartition(month);
+        if (moved > 0) {
+            log.warn("Создана секция {}, из scan_logs_default перенесено {} строк",
+                    ScanLogsPartitionRepository.partitionName(month), moved);
+        } else {
+            log.info("Создана секция {}", ScanLogsPartitionRepository.partitionName(month));
+        }
+    }
+
+    private void expire(YearMonth month) {
+        if (!partitionRepository.findPartitionMonths().contains(month)) {
+            return;
+        }
+        if (dropExpired) {
+            partitionRepository.dropPartition(month);
+            log.info("Секция {} удалена по сроку хранения", ScanLogsPartitionRepository.partitionName(month));
+        } else {
+            partitionRepository.detachPartition(month);
+            log.info("Секция {} отсоединена и сохранена как {}",
+                    ScanLogsPartitionRepository.partitionName(month), ScanLogsPartitionRepository.archiveName(month));
+        }
+    }
+
+    // строки в default не отсекаются фильтром по периоду и должны быть разобраны по секциям
+    private void checkDefaultPartition() {
+        try {
+            long rows = partitionRepository.countDefaultRows();
+            if (rows > 0) {
+                log.error("В scan_logs_default {} строк: для их месяцев нет секций", rows);
+            }
+        } catch (RuntimeException e) {
+            log.error("Не удалось проверить scan_logs_default", e);
+        }
+    }
+}
@@ -12,17 +12,23 @@ import com.example.aemix.exceptions.ConflictException;
 import com.example.aemix.exceptions.ResourceNotFoundException;
 import com.example.aemix.mappers.OrderMapper;
 import com.example.aemix.repositories.OrderRepository;
+import com.example.aemix.repositories.SpecificationSliceRepository;
 import com.example.aemix.repositories.UserOrdersRepository;
+import com.example.aemix.repositories.UserOrdersRepository.UserOrdersVersion;
+import com.example.aemix.repositories.specifications.UserOrdersSpecifications;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Arrays;
 import java.util.List;
 import java.time.LocalDateTime;
 
@@ -33,8 +39,13 @@ public class UserOrderService {
     private final OrderRepository orderRepository;
     private final OrderMapper orderMapper;
     private final UserOrdersRepository userOrdersRepository;
+    private final SpecificationSliceRepository specificationSliceRepository;
+    private final TransactionTemplate transactionTemplate;
 
-    public Page<OrderResponse> getMyOrders(
+    @Value("${app.user-order-counters.reconcile-batch-size:1000}")
+    private int reconcileBatchSize;
+
+    public Slice<OrderResponse> getMyOrders(
             Long userId,
             String text,
             Status status,
@@ -43,7 +54,8 @@ public class UserOrderService {
             LocalDateTime toDate,
             int page,
             int size,
-            OrderSort orderSort
+            OrderSort orderSort,
+            boolean withTotal
     ) {
         Sort sort;
         if (orderSort == null || orderSort == OrderSort.CREATED_DESC) {
@@ -55,21 +67,47 @@ public class UserOrderService {
         }
 
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<UserOrders> userOrdersPage = userOrdersRepository.findUserOrders(
-                userId, text, status, cityId, fromDate, toDate, pageable
-        );
-
-        return userOrdersPage.map(userOrder -> {
-            Order order = userOrder.getOrder();
-            OrderResponse response = orderMapper.toDto(order);
-            response.setTitle(userOrder.getTitle());
-            return response;
-        });
+        Specification<UserOrders> spec = UserOrdersSpecifications.filter(userId, text, status, cityId, fromDate, toDate);
+        Slice<UserOrders> userOrders = withTotal
+                ? userOrdersRepository.findAll(spec, pageable)
+                : specificationSliceRepository.findSlice(UserOrders.class, spec, pageable);
+
+        return userOrders.map(orderMapper::toDto);
+    }
+
+    /**
+     * Версия списка заказов пользователя для ETag: количество привязок и время последних изменений
+     * заказов, привязок и их городов.
+     */
+    public String getMyOrdersVersion(Long userId) {
+        UserOrdersVersion version = userOrdersRepository.findVersionByUserId(userId);
+        return version.getTotal() + ":" + version.getOrdersUpdatedAt() + ":" + version.getLinksUpdatedAt()
+                + ":" + version.getCitiesUpdatedAt();
     }
 
     public long getActiveOrdersCount(Long userId) {
-        List<Status> activeStatuses = Arrays.asList(Status.INTERNATIONAL_SHIPPING, Status.ARRIVED);
-        return userOrdersRepository.countByUserIdAndOrderStatusIn(userId, activeStatuses);
+        List<String> activeStatuses = List.of(Status.INTERNATIONAL_SHIPPING.name(), Status.ARRIVED.name());
+        return userOrdersRepository.sumOrderCounters(userId, activeStatuses);
+    }
+
+    /**
+     * Страховка для счетчиков активных заказов: триггеры держат их в актуальном состоянии,
+     * сверка раз в сутки исправляет расхождение, если оно все же возникло.
+     * Идет диапазонами id пользователей, каждый в своей транзакции, таблицу счетчиков не блокирует.
+     */
+    @Scheduled(cron = "${app.user-order-counters.reconcile-cron:0 30 3 * * *}")
+    public void reconcileOrderCounters() {
+        long maxUserId = userOrdersRepository.findMaxUserId();
+        int fixed = 0;
+        for (long from = 0; from <= maxUserId; from += reconcileBatchSize) {
+            long to = from + reconcileBatchSize;
+            long rangeStart = from;
+            Integer batchFixed = transactionTemplate.execute(status -> userOrdersRepository.reconcileOrderCounters(rangeStart, to));
+            fixed += batchFixed == null ? 0 : batchFixed;
+        }
+        if (fixed > 0) {
+            log.warn("Сверка счетчиков заказов пользователей: исправлено {} строк", fixed);
+        }
     }
 
     @Transactional
@@ -93,9 +131,7 @@ public class UserOrderService {
 
         log.info("Пользователь {} добавил заказ {}", user.getEmailOrTelegramId(), trackCode);
         
-        OrderResponse response = orderMapper.toDto(order);
-        response.setTitle(userOrder.getTitle());
-        return response;
+        return orderMapper.toDto(userOrder);
     }
 
     @Transactional
@@ -112,8 +148,6 @@ public class UserOrderService {
 
         log.info("Пользователь {} обновил название заказа {}", user.getEmailOrTelegramId(), trackCode);
 
-        OrderResponse response = orderMapper.toDto(userOrder.getOrder());
-        response.setTitle(userOrder.getTitle());
-        return response;
+        return orderMapper.toDto(userOrder);
     }
 }
@@ -0,0 +1,94 @@
+-- Базовая схема, совпадающая с DDL, который до этого генерировал Hibernate.
+-- На существующих базах миграция не выполняется: Flyway фиксирует baseline на версии 1.
+
+CREATE SEQUENCE IF NOT EXISTS city_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS user_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS user_orders_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS user_verification_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS password_reset_token_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS telegram_user_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS scan_logs_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS cities (
+    id   BIGINT       NOT NULL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id                    BIGINT       NOT NULL PRIMARY KEY,
+    email_or_telegram_id  VARCHAR(255) NOT NULL UNIQUE,
+    password              VARCHAR(255) NOT NULL,
+    role                  VARCHAR(255) NOT NULL CHECK (role IN ('USER', 'ADMIN', 'SUPER_ADMIN')),
+    is_verified           BOOLEAN,
+    created_at            TIMESTAMP(6) NOT NULL,
+    updated_at            TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS orders (
+    track_code VARCHAR(255) NOT NULL PRIMARY KEY,
+    status     VARCHAR(255) NOT NULL CHECK (status IN ('INTERNATIONAL_SHIPPING', 'ARRIVED', 'READY', 'UNKNOWN')),
+    city_id    BIGINT       NOT NULL REFERENCES cities (id),
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS user_orders (
+    id         BIGINT       NOT NULL PRIMARY KEY,
+    user_id    BIGINT       NOT NULL REFERENCES users (id),
+    track_code VARCHAR(255) NOT NULL UNIQUE REFERENCES orders (track_code),
+    title      VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS scan_logs (
+    id         BIGINT       NOT NULL PRIMARY KEY,
+    track_code VARCHAR(255) NOT NULL REFERENCES orders (track_code),
+    old_status VARCHAR(255) NOT NULL CHECK (old_status IN ('INTERNATIONAL_SHIPPING', 'ARRIVED', 'READY', 'UNKNOWN')),
+    new_status VARCHAR(255) NOT NULL CHECK (new_status IN ('INTERNATIONAL_SHIPPING', 'ARRIVED', 'READY', 'UNKNOWN')),
+    user_id    BIGINT       NOT NULL REFERENCES users (id),
+    scanned_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS user_verifications (
+    id                      BIGINT       NOT NULL PRIMARY KEY,
+    verification_code       VARCHAR(255),
+    verification_expiration TIMESTAMP(6),
+    user_id                 BIGINT       NOT NULL UNIQUE REFERENCES users (id),
+    created_at              TIMESTAMP(6) NOT NULL,
+    updated_at              TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS password_reset_tokens (
+    id                     BIGINT       NOT NULL PRIMARY KEY,
+    reset_token            VARCHAR(255) NOT NULL UNIQUE,
+    reset_token_expiration TIMESTAMP(6) NOT NULL,
+    user_id                BIGINT       NOT NULL UNIQUE REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS telegram_users (
+    id                  BIGINT       NOT NULL PRIMARY KEY,
+    telegram_id         BIGINT       NOT NULL UNIQUE,
+    telegram_username   VARCHAR(255),
+    telegram_first_name VARCHAR(255),
+    telegram_last_name  VARCHAR(255),
+    telegram_photo_url  VARCHAR(255),
+    user_id             BIGINT       NOT NULL UNIQUE REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS telegram_login_tokens (
+    id          BIGSERIAL                   NOT NULL PRIMARY KEY,
+    token       VARCHAR(64)                 NOT NULL UNIQUE,
+    telegram_id BIGINT                      NOT NULL,
+    first_name  VARCHAR(255),
+    last_name   VARCHAR(255),
+    username    VARCHAR(255),
+    expires_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS instruction_links (
+    id         BIGSERIAL     NOT NULL PRIMARY KEY,
+    link_key   VARCHAR(255)  NOT NULL UNIQUE,
+    title      VARCHAR(255)  NOT NULL,
+    subtitle   VARCHAR(500),
+    link       VARCHAR(2048) NOT NULL,
+    sort_order INTEGER       NOT NULL
+);
@@ -0,0 +1,13 @@
+-- Триграммные GIN-индексы для поиска подстроки (LOWER(x) LIKE '%text%').
+-- B-tree такие условия не обслуживает, без индекса каждый запрос поиска - seq scan.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_users_email_or_telegram_id_trgm
+    ON users USING gin (lower(email_or_telegram_id) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_user_orders_title_trgm
+    ON user_orders USING gin (lower(title) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_orders_track_code_trgm
+    ON orders USING gin (lower(track_code) gin_trgm_ops);
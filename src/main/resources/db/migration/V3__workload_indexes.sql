@@ -0,0 +1,37 @@
+-- flyway:executeInTransaction=false
+-- Индексы под запросы репозиториев. Создаются CONCURRENTLY, чтобы не блокировать запись на больших таблицах.
+
+-- AdminOrderService.getOrders / getOrdersByCursor (OrderSpecifications.filter через OrderProjectionRepository),
+-- OrderJdbcRepository.transitionCity: фильтр по статусу и городу с сортировкой по дате создания
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_status_city_created
+    ON orders (status, city_id, created_at);
+
+-- AdminOrderService.getOrders без фильтров и getOrdersByCursor: keyset по (created_at, track_code)
+-- из OrderSpecifications.after/before
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_created_track_code
+    ON orders (created_at, track_code);
+
+-- AdminOrderService.getOrders с фильтром только по городу, внешний ключ на cities
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_city_created
+    ON orders (city_id, created_at);
+
+-- UserOrderService.getMyOrders и AdminUserService.getUser (UserOrdersSpecifications.filter),
+-- UserOrdersRepository.findVersionByUserId
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_orders_user_id
+    ON user_orders (user_id);
+
+-- AdminScanLogsService.getScanLogs (ScanLogsSpecifications.filter): сортировка и фильтр по дате сканирования
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_scan_logs_scanned_at
+    ON scan_logs (scanned_at);
+
+-- AdminScanLogsService.getScanLogs с фильтром по новому статусу
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_scan_logs_new_status_scanned_at
+    ON scan_logs (new_status, scanned_at);
+
+-- Соединение scan_logs с orders и внешний ключ на orders
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_scan_logs_track_code
+    ON scan_logs (track_code);
+
+-- Фильтр по оператору и внешний ключ на users
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_scan_logs_user_id
+    ON scan_logs (user_id);
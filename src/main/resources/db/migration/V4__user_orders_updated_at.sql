@@ -0,0 +1,4 @@
+-- Время последнего изменения привязки (название заказа) для ETag списка заказов пользователя.
+-- Существующие строки остаются с NULL: до первого изменения версию задаёт orders.updated_at.
+
+ALTER TABLE user_orders ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP(6);
@@ -0,0 +1,119 @@
+-- Счётчики заказов пользователя по статусам для бейджа /user/orders/active-count.
+-- Поддерживаются триггерами в той же транзакции, что и изменение: смена статуса заказа
+-- (JPQL, JDBC-переходы, перевод целого города) и привязка/отвязка заказа в user_orders.
+-- Триггеры уровня оператора с transition tables: массовый переход на 20 000 заказов
+-- даёт один агрегированный upsert, а не 20 000 построчных обновлений.
+
+CREATE TABLE IF NOT EXISTS user_order_counters (
+    user_id     BIGINT       NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    status      VARCHAR(255) NOT NULL CHECK (status IN ('INTERNATIONAL_SHIPPING', 'ARRIVED', 'READY', 'UNKNOWN')),
+    order_count BIGINT       NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, status)
+);
+
+-- строки upsert'а упорядочены по ключу, чтобы параллельные переходы не ловили взаимную блокировку
+CREATE OR REPLACE FUNCTION user_order_counters_on_orders() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    INSERT INTO user_order_counters AS c (user_id, status, order_count)
+    SELECT uo.user_id, d.status, SUM(d.delta)
+    FROM (
+        SELECT n.track_code, n.status, 1 AS delta
+        FROM new_rows n
+        JOIN old_rows o ON o.track_code = n.track_code
+        WHERE n.status <> o.status
+        UNION ALL
+        SELECT o.track_code, o.status, -1 AS delta
+        FROM old_rows o
+        JOIN new_rows n ON n.track_code = o.track_code
+        WHERE n.status <> o.status
+    ) d
+    JOIN user_orders uo ON uo.track_code = d.track_code
+    GROUP BY uo.user_id, d.status
+    HAVING SUM(d.delta) <> 0
+    ORDER BY uo.user_id, d.status
+    ON CONFLICT (user_id, status) DO UPDATE SET order_count = c.order_count + EXCLUDED.order_count;
+    RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION user_order_counters_on_user_orders() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO user_order_counters AS c (user_id, status, order_count)
+        SELECT n.user_id, o.status, COUNT(*)
+        FROM new_rows n
+        JOIN orders o ON o.track_code = n.track_code
+        GROUP BY n.user_id, o.status
+        ORDER BY n.user_id, o.status
+        ON CONFLICT (user_id, status) DO UPDATE SET order_count = c.order_count + EXCLUDED.order_count;
+    ELSIF TG_OP = 'DELETE' THEN
+        UPDATE user_order_counters c
+        SET order_count = c.order_count - d.removed
+        FROM (
+            SELECT r.user_id, o.status, COUNT(*) AS removed
+            FROM old_rows r
+            JOIN orders o ON o.track_code = r.track_code
+            GROUP BY r.user_id, o.status
+        ) d
+        WHERE c.user_id = d.user_id AND c.status = d.status;
+    ELSE
+        -- перепривязка заказа к другому пользователю; смена названия сюда не попадает
+        INSERT INTO user_order_counters AS c (user_id, status, order_count)
+        SELECT d.user_id, d.status, SUM(d.delta)
+        FROM (
+            SELECT n.user_id, o.status, 1 AS delta
+            FROM new_rows n
+            JOIN old_rows r ON r.id = n.id
+            JOIN orders o ON o.track_code = n.track_code
+            WHERE n.user_id <> r.user_id OR n.track_code <> r.track_code
+            UNION ALL
+            SELECT r.user_id, o.status, -1 AS delta
+            FROM old_rows r
+            JOIN new_rows n ON n.id = r.id
+            JOIN orders o ON o.track_code = r.track_code
+            WHERE n.user_id <> r.user_id OR n.track_code <> r.track_code
+        ) d
+        GROUP BY d.user_id, d.status
+        HAVING SUM(d.delta) <> 0
+        ORDER BY d.user_id, d.status
+        ON CONFLICT (user_id, status) DO UPDATE SET order_count = c.order_count + EXCLUDED.order_count;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS trg_user_order_counters_orders ON orders;
+CREATE TRIGGER trg_user_order_counters_orders
+    AFTER UPDATE ON orders
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION user_order_counters_on_orders();
+
+DROP TRIGGER IF EXISTS trg_user_order_counters_user_orders_insert ON user_orders;
+CREATE TRIGGER trg_user_order_counters_user_orders_insert
+    AFTER INSERT ON user_orders
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION user_order_counters_on_user_orders();
+
+DROP TRIGGER IF EXISTS trg_user_order_counters_user_orders_update ON user_orders;
+CREATE TRIGGER trg_user_order_counters_user_orders_update
+    AFTER UPDATE ON user_orders
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION user_order_counters_on_user_orders();
+
+DROP TRIGGER IF EXISTS trg_user_order_counters_user_orders_delete ON user_orders;
+CREATE TRIGGER trg_user_order_counters_user_orders_delete
+    AFTER DELETE ON user_orders
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION user_order_counters_on_user_orders();
+
+-- начальное заполнение: триггеры уже созданы в этой транзакции, дальнейшие изменения учтутся ими
+INSERT INTO user_order_counters (user_id, status, order_count)
+SELECT uo.user_id, o.status, COUNT(*)
+FROM user_orders uo
+JOIN orders o ON o.track_code = uo.track_code
+GROUP BY uo.user_id, o.status
+ON CONFLICT (user_id, status) DO UPDATE SET order_count = EXCLUDED.order_count;
@@ -0,0 +1,55 @@
+-- scan_logs секционируется по месяцам scanned_at: фильтр по периоду в AdminScanLogsRepository.findLogs
+-- затрагивает только нужные секции, а старые месяцы отсоединяются целиком (ScanLogsPartitionService).
+-- Первичный ключ секционированной таблицы обязан включать ключ секционирования, поэтому он (id, scanned_at);
+-- id по-прежнему выдаёт scan_logs_seq.
+-- Будущие секции создаёт приложение при старте и по расписанию; DEFAULT-секция страхует вставку,
+-- если задание не отработало.
+
+LOCK TABLE scan_logs IN ACCESS EXCLUSIVE MODE;
+
+ALTER TABLE scan_logs RENAME TO scan_logs_legacy;
+
+CREATE TABLE scan_logs (
+    id         BIGINT       NOT NULL,
+    track_code VARCHAR(255) NOT NULL REFERENCES orders (track_code),
+    old_status VARCHAR(255) NOT NULL CHECK (old_status IN ('INTERNATIONAL_SHIPPING', 'ARRIVED', 'READY', 'UNKNOWN')),
+    new_status VARCHAR(255) NOT NULL CHECK (new_status IN ('INTERNATIONAL_SHIPPING', 'ARRIVED', 'READY', 'UNKNOWN')),
+    user_id    BIGINT       NOT NULL REFERENCES users (id),
+    scanned_at TIMESTAMP(6) NOT NULL
+) PARTITION BY RANGE (scanned_at);
+
+-- секции с месяца самой старой записи до трёх месяцев вперёд
+DO
+$$
+DECLARE
+    month_start DATE := date_trunc('month', COALESCE((SELECT min(scanned_at) FROM scan_logs_legacy), now()))::date;
+    last_month  DATE := (date_trunc('month', now()) + INTERVAL '3 months')::date;
+BEGIN
+    WHILE month_start <= last_month LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF scan_logs FOR VALUES FROM (%L) TO (%L)',
+            'scan_logs_' || to_char(month_start, 'YYYY_MM'),
+            month_start,
+            (month_start + INTERVAL '1 month')::date
+        );
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+END;
+$$;
+
+CREATE TABLE IF NOT EXISTS scan_logs_default PARTITION OF scan_logs DEFAULT;
+
+INSERT INTO scan_logs (id, track_code, old_status, new_status, user_id, scanned_at)
+SELECT id, track_code, old_status, new_status, user_id, scanned_at
+FROM scan_logs_legacy;
+
+DROP TABLE scan_logs_legacy;
+
+-- индексы создаются после переноса данных; на родительской таблице они распространяются на все секции
+ALTER TABLE scan_logs ADD PRIMARY KEY (id, scanned_at);
+CREATE INDEX IF NOT EXISTS idx_scan_logs_scanned_at ON scan_logs (scanned_at);
+CREATE INDEX IF NOT EXISTS idx_scan_logs_new_status_scanned_at ON scan_logs (new_status, scanned_at);
+CREATE INDEX IF NOT EXISTS idx_scan_logs_track_code ON scan_logs (track_code);
+CREATE INDEX IF NOT EXISTS idx_scan_logs_user_id ON scan_logs (user_id);
+
+ANALYZE scan_logs;
@@ -0,0 +1,123 @@
+-- Триггер user_orders из V5 читал orders.status без блокировки строки. Проверка FK берет только FOR KEY SHARE,
+-- а UPDATE статуса - FOR NO KEY UPDATE, и они не конфликтуют. Привязка заказа параллельно с переводом его статуса
+-- (transitionCity, bulkReady) давала вечный рассинхрон: привязка считалась по старому статусу,
+-- а триггер orders не видел незакоммиченную привязку.
+-- Теперь триггер сначала блокирует строки заказов FOR NO KEY UPDATE: ждет конкурирующий UPDATE и читает
+-- закоммиченный статус, а UPDATE, пришедший позже, ждет привязку и уже видит ее. Порядок блокировок
+-- (orders, затем user_order_counters) совпадает с триггером orders, поэтому взаимной блокировки нет.
+
+CREATE OR REPLACE FUNCTION user_order_counters_on_user_orders() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM 1 FROM orders o
+        WHERE o.track_code IN (SELECT n.track_code FROM new_rows n)
+        ORDER BY o.track_code
+        FOR NO KEY UPDATE;
+
+        INSERT INTO user_order_counters AS c (user_id, status, order_count)
+        SELECT n.user_id, o.status, COUNT(*)
+        FROM new_rows n
+        JOIN orders o ON o.track_code = n.track_code
+        GROUP BY n.user_id, o.status
+        ORDER BY n.user_id, o.status
+        ON CONFLICT (user_id, status) DO UPDATE SET order_count = c.order_count + EXCLUDED.order_count;
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM 1 FROM orders o
+        WHERE o.track_code IN (SELECT r.track_code FROM old_rows r)
+        ORDER BY o.track_code
+        FOR NO KEY UPDATE;
+
+        UPDATE user_order_counters c
+        SET order_count = c.order_count - d.removed
+        FROM (
+            SELECT r.user_id, o.status, COUNT(*) AS removed
+            FROM old_rows r
+            JOIN orders o ON o.track_code = r.track_code
+            GROUP BY r.user_id, o.status
+        ) d
+        WHERE c.user_id = d.user_id AND c.status = d.status;
+    ELSE
+        PERFORM 1 FROM orders o
+        WHERE o.track_code IN (
+            SELECT n.track_code
+            FROM new_rows n
+            JOIN old_rows r ON r.id = n.id
+            WHERE n.user_id <> r.user_id OR n.track_code <> r.track_code
+            UNION
+            SELECT r.track_code
+            FROM old_rows r
+            JOIN new_rows n ON n.id = r.id
+            WHERE n.user_id <> r.user_id OR n.track_code <> r.track_code
+        )
+        ORDER BY o.track_code
+        FOR NO KEY UPDATE;
+
+        -- перепривязка заказа к другому пользователю; смена названия сюда не попадает
+        INSERT INTO user_order_counters AS c (user_id, status, order_count)
+        SELECT d.user_id, d.status, SUM(d.delta)
+        FROM (
+            SELECT n.user_id, o.status, 1 AS delta
+            FROM new_rows n
+            JOIN old_rows r ON r.id = n.id
+            JOIN orders o ON o.track_code = n.track_code
+            WHERE n.user_id <> r.user_id OR n.track_code <> r.track_code
+            UNION ALL
+            SELECT r.user_id, o.status, -1 AS delta
+            FROM old_rows r
+            JOIN new_rows n ON n.id = r.id
+            JOIN orders o ON o.track_code = r.track_code
+            WHERE n.user_id <> r.user_id OR n.track_code <> r.track_code
+        ) d
+        GROUP BY d.user_id, d.status
+        HAVING SUM(d.delta) <> 0
+        ORDER BY d.user_id, d.status
+        ON CONFLICT (user_id, status) DO UPDATE SET order_count = c.order_count + EXCLUDED.order_count;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+-- Сверка счетчиков пользователей с id в [from_user_id, to_user_id): исправляет расхождения
+-- и возвращает число исправленных строк. Блокировку таблицы не берет - сканы и переходы городов не ждут сверку.
+-- Расхождение считается одним оператором по одному снимку, а каждая закоммиченная транзакция меняет
+-- user_orders/orders и счетчики согласованно, поэтому снимок видит только настоящий рассинхрон.
+-- Исправление прибавляется к текущему значению (а не перезаписывает его): изменения параллельных
+-- транзакций, которых нет в снимке, сохраняются. Строки счетчиков блокируются в порядке ключа, как в триггерах.
+CREATE OR REPLACE FUNCTION reconcile_user_order_counters(from_user_id BIGINT, to_user_id BIGINT) RETURNS integer
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    fixed integer;
+BEGIN
+    WITH actual AS (
+        SELECT uo.user_id, o.status, COUNT(*) AS order_count
+        FROM user_orders uo
+        JOIN orders o ON o.track_code = uo.track_code
+        WHERE uo.user_id >= from_user_id AND uo.user_id < to_user_id
+        GROUP BY uo.user_id, o.status
+    ), counters AS (
+        SELECT c.user_id, c.status, c.order_count
+        FROM user_order_counters c
+        WHERE c.user_id >= from_user_id AND c.user_id < to_user_id
+    ), drift AS (
+        SELECT COALESCE(a.user_id, c.user_id) AS user_id,
+               COALESCE(a.status, c.status) AS status,
+               COALESCE(a.order_count, 0) - COALESCE(c.order_count, 0) AS delta
+        FROM actual a
+        FULL JOIN counters c ON c.user_id = a.user_id AND c.status = a.status
+        WHERE COALESCE(a.order_count, 0) <> COALESCE(c.order_count, 0)
+    ), fixed_rows AS (
+        INSERT INTO user_order_counters AS c (user_id, status, order_count)
+        SELECT d.user_id, d.status, d.delta
+        FROM drift d
+        ORDER BY d.user_id, d.status
+        ON CONFLICT (user_id, status) DO UPDATE SET order_count = c.order_count + EXCLUDED.order_count
+        RETURNING 1
+    )
+    SELECT count(*) INTO fixed FROM fixed_rows;
+
+    RETURN fixed;
+END;
+$$;
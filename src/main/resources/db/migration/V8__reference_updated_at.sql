@@ -0,0 +1,25 @@
+-- Время последнего изменения справочников для ETag: список городов и ссылок на инструкции
+-- отдаёт 304 по COUNT(*) + MAX(updated_at), не читая и не сериализуя сами строки.
+-- Города правятся и напрямую в БД, поэтому updated_at ставит триггер, а не приложение.
+-- Удаление строки меняет COUNT(*), вставка и изменение — MAX(updated_at).
+
+ALTER TABLE cities ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP(6) NOT NULL DEFAULT clock_timestamp();
+ALTER TABLE instruction_links ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP(6) NOT NULL DEFAULT clock_timestamp();
+
+CREATE OR REPLACE FUNCTION touch_updated_at() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.updated_at := clock_timestamp();
+    RETURN NEW;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS trg_cities_touch_updated_at ON cities;
+CREATE TRIGGER trg_cities_touch_updated_at
+    BEFORE INSERT OR UPDATE ON cities
+    FOR EACH ROW EXECUTE FUNCTION touch_updated_at();
+
+DROP TRIGGER IF EXISTS trg_instruction_links_touch_updated_at ON instruction_links;
+CREATE TRIGGER trg_instruction_links_touch_updated_at
+    BEFORE INSERT OR UPDATE ON instruction_links
+    FOR EACH ROW EXECUTE FUNCTION touch_updated_at();
@@ -0,0 +1,28 @@
+package com.example.aemix.repositories;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LikePatternsTest {
+
+    @Test
+    void escapesWildcardsAndEscapeCharacter() {
+        assertEquals("%50!%!_off!!%", LikePatterns.contains("50%_off!"));
+        assertEquals("a!_b%", LikePatterns.startsWith("a_b"));
+    }
+
+    @Test
+    void trimsAndLowercases() {
+        assertEquals("%ab-12%", LikePatterns.contains("  AB-12 "));
+        assertEquals("москва%", LikePatterns.startsWith("Москва"));
+    }
+
+    @Test
+    void blankTextGivesNoPattern() {
+        assertNull(LikePatterns.contains(null));
+        assertNull(LikePatterns.contains("  "));
+        assertNull(LikePatterns.startsWith(""));
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.aemix.services;
+
+import com.example.aemix.dto.responses.BatchScanResponse;
+import com.example.aemix.dto.responses.ScanResultResponse;
+import com.example.aemix.entities.City;
+import com.example.aemix.entities.Order;
+import com.example.aemix.entities.User;
+import com.example.aemix.entities.enums.Role;
+import com.example.aemix.entities.enums.ScanResult;
+import com.example.aemix.entities.enums.Status;
+import com.example.aemix.repositories.CityRepository;
+import com.example.aemix.repositories.OrderRepository;
+import com.example.aemix.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Классификация результатов пакетного скана: отсканирован, повтор, не найден, неверный статус.
+ */
+@SpringBootTest(properties = "app.scan-logs.write-behind.enabled=false")
+class AdminScanServiceBatchTest {
+
+    @Autowired
+    private AdminScanService adminScanService;
+    @Autowired
+    private CityRepository cityRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private City city;
+    private Order shipping;
+    private Order ready;
+    private User user;
+    private String missing;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        city = cityRepository.save(City.builder().name("Тест " + suffix).build());
+        shipping = orderRepository.save(Order.builder()
+                .trackCode("BATCH-S-" + suffix)
+                .status(Status.INTERNATIONAL_SHIPPING)
+                .city(city)
+                .build());
+        ready = orderRepository.save(Order.builder()
+                .trackCode("BATCH-R-" + suffix)
+                .status(Status.READY)
+                .city(city)
+                .build());
+        user = userRepository.save(User.builder()
+                .emailOrTelegramId("batch-" + suffix + "@example.com")
+                .password("x")
+                .role(Role.ADMIN)
+                .build());
+        missing = "BATCH-M-" + suffix;
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM scan_logs WHERE track_code IN (?, ?)", shipping.getTrackCode(), ready.getTrackCode());
+        orderRepository.delete(shipping);
+        orderRepository.delete(ready);
+        userRepository.delete(user);
+        cityRepository.delete(city);
+    }
+
+    @Test
+    void classifiesEveryUniqueTrackCode() {
+        BatchScanResponse response = adminScanService.scanArrivedBatch(
+                List.of(" " + shipping.getTrackCode() + " ", ready.getTrackCode(), missing, shipping.getTrackCode()),
+                user);
+
+        assertEquals(3, response.getTotal());
+        assertEquals(1, response.getArrived());
+        assertEquals(2, response.getFailed());
+        List<ScanResultResponse> results = response.getResults();
+        assertEquals(List.of(shipping.getTrackCode(), ready.getTrackCode(), missing),
+                results.stream().map(ScanResultResponse::getTrackCode).toList());
+        assertEquals(ScanResult.ARRIVED, results.get(0).getResult());
+        assertEquals(ScanResult.INVALID_STATUS, results.get(1).getResult());
+        assertEquals(Status.READY, results.get(1).getStatus());
+        assertEquals(ScanResult.NOT_FOUND, results.get(2).getResult());
+    }
+
+    @Test
+    void repeatedScanIsReportedAsAlreadyArrived() {
+        adminScanService.scanArrivedBatch(List.of(shipping.getTrackCode()), user);
+
+        BatchScanResponse response = adminScanService.scanArrivedBatch(List.of(shipping.getTrackCode()), user);
+
+        assertEquals(1, response.getArrived());
+        assertEquals(0, response.getFailed());
+        assertEquals(ScanResult.ALREADY_ARRIVED, response.getResults().get(0).getResult());
+        assertEquals(Status.ARRIVED, orderRepository.findStatusByTrackCode(shipping.getTrackCode()).orElseThrow());
+    }
+}
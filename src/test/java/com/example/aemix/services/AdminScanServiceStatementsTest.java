@@ -0,0 +1,161 @@
+package com.example.aemix.services;
+
+import com.example.aemix.entities.City;
+import com.example.aemix.entities.Order;
+import com.example.aemix.entities.User;
+import com.example.aemix.entities.UserOrders;
+import com.example.aemix.entities.enums.Role;
+import com.example.aemix.entities.enums.Status;
+import com.example.aemix.repositories.CityRepository;
+import com.example.aemix.repositories.OrderRepository;
+import com.example.aemix.repositories.UserOrdersRepository;
+import com.example.aemix.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Приложение при скане заказа отправляет три запроса - UPDATE orders, INSERT в scan_logs
+ * и SELECT ответа по orders и cities - и не запрашивает user_orders и users.
+ * Проверяются только запросы из JDBC: триггер счетчиков (V5) на стороне БД читает user_orders
+ * при каждом переходе статуса, его проверяет {@link UserOrderCountersTriggerTest}.
+ */
+@SpringBootTest(properties = "app.scan-logs.write-behind.enabled=false")
+class AdminScanServiceStatementsTest {
+
+    private static final List<String> STATEMENTS = new ArrayList<>();
+
+    @Autowired
+    private AdminScanService adminScanService;
+    @Autowired
+    private CityRepository cityRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserOrdersRepository userOrdersRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private City city;
+    private Order order;
+    private User user;
+    private UserOrders userOrder;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        city = cityRepository.save(City.builder().name("Тест " + suffix).build());
+        order = orderRepository.save(Order.builder()
+                .trackCode("STMT-" + suffix)
+                .status(Status.INTERNATIONAL_SHIPPING)
+                .city(city)
+                .build());
+        user = userRepository.save(User.builder()
+                .emailOrTelegramId("stmt-" + suffix + "@example.com")
+                .password("x")
+                .role(Role.ADMIN)
+                .build());
+        // у заказа есть владелец: раньше скан подтягивал его через обратную связь Order.userOrders
+        userOrder = userOrdersRepository.save(UserOrders.builder().user(user).order(order).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM scan_logs WHERE track_code = ?", order.getTrackCode());
+        userOrdersRepository.delete(userOrder);
+        orderRepository.delete(order);
+        userRepository.delete(user);
+        cityRepository.delete(city);
+    }
+
+    @Test
+    void scanArrivedIssuesOnlyOrdersAndScanLogsStatements() {
+        List<String> statements;
+        synchronized (STATEMENTS) {
+            STATEMENTS.clear();
+        }
+        adminScanService.scanArrived(order.getTrackCode(), user);
+        synchronized (STATEMENTS) {
+            statements = List.copyOf(STATEMENTS);
+        }
+
+        assertEquals(3, statements.size(), () -> "Ожидалось 3 запроса, выполнено: " + statements);
+        for (String sql : statements) {
+            String normalized = sql.toLowerCase(Locale.ROOT);
+            assertTrue(!normalized.contains("user_orders") && !normalized.matches("(?s).*\\busers\\b.*"),
+                    () -> "Скан запросил данные владельца: " + sql);
+        }
+    }
+
+    @TestConfiguration
+    static class StatementRecorderConfig {
+
+        @Bean
+        static BeanPostProcessor statementRecordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new RecordingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    private static class RecordingDataSource extends DelegatingDataSource {
+
+        RecordingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return record(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return record(super.getConnection(username, password));
+        }
+
+        private static Connection record(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if ((method.getName().equals("prepareStatement") || method.getName().equals("prepareCall"))
+                                && args != null && args[0] instanceof String sql) {
+                            synchronized (STATEMENTS) {
+                                STATEMENTS.add(sql);
+                            }
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
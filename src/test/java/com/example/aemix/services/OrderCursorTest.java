@@ -0,0 +1,43 @@
+package com.example.aemix.services;
+
+import com.example.aemix.exceptions.RequestValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OrderCursorTest {
+
+    @Test
+    void roundTripKeepsPositionAndDirection() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 3, 1, 12, 30, 15, 123_456_000);
+        OrderCursor forward = new OrderCursor(createdAt, "AB|12", false);
+        OrderCursor backward = new OrderCursor(createdAt, "AB|12", true);
+
+        assertEquals(forward, OrderCursor.decode(forward.encode()));
+        assertEquals(backward, OrderCursor.decode(backward.encode()));
+    }
+
+    @Test
+    void blankCursorMeansFirstPage() {
+        assertNull(OrderCursor.decode(null));
+        assertNull(OrderCursor.decode(" "));
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(RequestValidationException.class, () -> OrderCursor.decode("не base64"));
+        assertThrows(RequestValidationException.class, () -> OrderCursor.decode(encode("x|2026-03-01T12:30|A")));
+        assertThrows(RequestValidationException.class, () -> OrderCursor.decode(encode("f|вчера|A")));
+        assertThrows(RequestValidationException.class, () -> OrderCursor.decode(encode("f|2026-03-01T12:30")));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.aemix.services;
+
+import com.example.aemix.exceptions.RequestValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderJsonStreamReaderTest {
+
+    private final OrderJsonStreamReader reader = new OrderJsonStreamReader();
+    private final List<String> added = new ArrayList<>();
+    private OrderImportService.ImportSession session;
+
+    @BeforeEach
+    void setUp() {
+        session = mock(OrderImportService.ImportSession.class);
+        doAnswer(invocation -> added.add(invocation.getArgument(0))).when(session).add(any());
+        when(session.getTotal()).thenAnswer(invocation -> added.size());
+    }
+
+    @Test
+    void readsOrdersWithCityFromBody() {
+        OrderImportService.ImportSession result = reader.read(
+                body("{\"cityId\": 7, \"orders\": [{\"trackCode\": \"A1\", \"title\": {\"x\": 1}}, 5, {\"trackCode\": \"A2\"}]}"),
+                null,
+                cityId -> {
+                    assertEquals(7L, cityId);
+                    return session;
+                });
+
+        assertSame(session, result);
+        assertEquals(Arrays.asList("A1", null, "A2"), added);
+        verify(session, never()).fail(any());
+    }
+
+    @Test
+    void truncatedBodyKeepsImportedOrders() {
+        OrderImportService.ImportSession result = reader.read(
+                body("{\"orders\": [{\"trackCode\": \"A1\"}, {\"trackCode\": \"A2\"}, {\"track"),
+                1L,
+                cityId -> session);
+
+        assertSame(session, result);
+        assertEquals(List.of("A1", "A2"), added);
+        ArgumentCaptor<String> reason = ArgumentCaptor.forClass(String.class);
+        verify(session).fail(reason.capture());
+        assertTrue(reason.getValue().endsWith("Импорт остановлен после 2 заказов"), reason.getValue());
+    }
+
+    @Test
+    void malformedElementReportsPosition() {
+        reader.read(body("{\"orders\": [{\"trackCode\": \"A1\"},\n{\"trackCode\": ]}"), 1L, cityId -> session);
+
+        ArgumentCaptor<String> reason = ArgumentCaptor.forClass(String.class);
+        verify(session).fail(reason.capture());
+        assertTrue(reason.getValue().startsWith("Некорректный JSON (строка 2"), reason.getValue());
+    }
+
+    @Test
+    void brokenBodyBeforeAnyOrderIsRejected() {
+        RequestValidationException e = assertThrows(RequestValidationException.class,
+                () -> reader.read(body("{\"orders\": [{\"trackCode\""), 1L, cityId -> session));
+        assertEquals("Некорректный JSON", e.getMessage());
+    }
+
+    @Test
+    void missingCityIsRejected() {
+        assertThrows(RequestValidationException.class,
+                () -> reader.read(body("{\"orders\": [{\"trackCode\": \"A1\"}]}"), null, cityId -> session));
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.aemix.services;
+
+import com.example.aemix.dto.responses.OrderResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RecentScanCacheTest {
+
+    @Test
+    void scanExpiresAfterWindow() throws InterruptedException {
+        RecentScanCache cache = new RecentScanCache(50, 100);
+        OrderResponse response = OrderResponse.builder().trackCode("A1").build();
+        cache.remember(1L, "A1", response);
+
+        assertSame(response, cache.find(1L, "A1").response());
+        assertNull(cache.find(2L, "A1"));
+
+        Thread.sleep(100);
+        assertNull(cache.find(1L, "A1"));
+    }
+
+    @Test
+    void oldestScanIsEvictedOverLimit() {
+        RecentScanCache cache = new RecentScanCache(60_000, 2);
+        cache.rememberAll(1L, List.of("A1", "A2"));
+        cache.remember(1L, "A3", null);
+
+        assertNull(cache.find(1L, "A1"));
+        assertNotNull(cache.find(1L, "A2"));
+        assertNotNull(cache.find(1L, "A3"));
+    }
+
+    @Test
+    void scanIsRememberedOnlyAfterCommit() {
+        RecentScanCache cache = new RecentScanCache(60_000, 100);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.rememberAll(1L, List.of("A1"));
+            assertNull(cache.find(1L, "A1"));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertNotNull(cache.find(1L, "A1"));
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.aemix.services;
+
+import com.example.aemix.entities.City;
+import com.example.aemix.entities.Order;
+import com.example.aemix.entities.User;
+import com.example.aemix.entities.UserOrders;
+import com.example.aemix.entities.enums.Role;
+import com.example.aemix.entities.enums.Status;
+import com.example.aemix.repositories.CityRepository;
+import com.example.aemix.repositories.OrderRepository;
+import com.example.aemix.repositories.UserOrdersRepository;
+import com.example.aemix.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Триггеры миграций V5/V7 держат user_order_counters в актуальном состоянии при привязке и скане заказа,
+ * а сверка исправляет счетчик, разошедшийся с данными.
+ */
+@SpringBootTest(properties = "app.scan-logs.write-behind.enabled=false")
+class UserOrderCountersTriggerTest {
+
+    @Autowired
+    private AdminScanService adminScanService;
+    @Autowired
+    private UserOrderService userOrderService;
+    @Autowired
+    private CityRepository cityRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserOrdersRepository userOrdersRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private City city;
+    private Order order;
+    private User user;
+    private UserOrders userOrder;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        city = cityRepository.save(City.builder().name("Тест " + suffix).build());
+        order = orderRepository.save(Order.builder()
+                .trackCode("CNT-" + suffix)
+                .status(Status.INTERNATIONAL_SHIPPING)
+                .city(city)
+                .build());
+        user = userRepository.save(User.builder()
+                .emailOrTelegramId("cnt-" + suffix + "@example.com")
+                .password("x")
+                .role(Role.ADMIN)
+                .build());
+        userOrder = userOrdersRepository.save(UserOrders.builder().user(user).order(order).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM scan_logs WHERE track_code = ?", order.getTrackCode());
+        userOrdersRepository.delete(userOrder);
+        orderRepository.delete(order);
+        userRepository.delete(user);
+        cityRepository.delete(city);
+    }
+
+    @Test
+    void scanOfBoundOrderMovesCounter() {
+        assertEquals(1, counter(Status.INTERNATIONAL_SHIPPING));
+        assertEquals(0, counter(Status.ARRIVED));
+
+        adminScanService.scanArrived(order.getTrackCode(), user);
+
+        assertEquals(0, counter(Status.INTERNATIONAL_SHIPPING));
+        assertEquals(1, counter(Status.ARRIVED));
+    }
+
+    @Test
+    void reconcileFixesDriftedCounter() {
+        jdbcTemplate.update("""
+                UPDATE user_order_counters SET order_count = 5
+                WHERE user_id = ? AND status = 'INTERNATIONAL_SHIPPING'
+                """, user.getId());
+        jdbcTemplate.update("""
+                INSERT INTO user_order_counters (user_id, status, order_count) VALUES (?, 'READY', 2)
+                ON CONFLICT (user_id, status) DO UPDATE SET order_count = 2
+                """, user.getId());
+
+        userOrderService.reconcileOrderCounters();
+
+        assertEquals(1, counter(Status.INTERNATIONAL_SHIPPING));
+        assertEquals(0, counter(Status.READY));
+    }
+
+    private long counter(Status status) {
+        Long count = jdbcTemplate.queryForObject("""
+                SELECT COALESCE(SUM(order_count), 0) FROM user_order_counters
+                WHERE user_id = ? AND status = ?
+                """, Long.class, user.getId(), status.name());
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,189 @@
+-- Проверка, что запросы репозиториев используют индексы из V3__workload_indexes.sql.
+-- Запуск на пустой базе после миграций:
+--   psql -v ON_ERROR_STOP=1 -d aemix_bench -f src/test/resources/benchmarks/explain-indexes.sql
+-- При отсутствии ожидаемого индекса в плане скрипт завершается ошибкой. Все изменения откатываются.
+-- Запросы повторяют SQL, который Hibernate строит из спецификаций: те же соединения, форма предикатов,
+-- сортировка и OFFSET/FETCH. При изменении спецификаций или сущностей сверьте их с выводом
+-- logging.level.org.hibernate.SQL=DEBUG и обновите.
+
+BEGIN;
+
+CREATE FUNCTION pg_temp.assert_index(query text, index_name text) RETURNS void AS $$
+DECLARE
+    plan text;
+BEGIN
+    FOR plan IN EXECUTE 'EXPLAIN (FORMAT TEXT) ' || query LOOP
+        IF position(index_name IN plan) > 0 THEN
+            RAISE NOTICE 'OK   %: %', index_name, left(query, 80);
+            RETURN;
+        END IF;
+    END LOOP;
+    RAISE EXCEPTION 'Индекс % не используется: %', index_name, query;
+END;
+$$ LANGUAGE plpgsql;
+
+-- секция должна существовать, иначе ее отсутствие в плане ничего не доказывает
+CREATE FUNCTION pg_temp.assert_pruned(query text, relation_name text) RETURNS void AS $$
+DECLARE
+    plan text;
+BEGIN
+    IF to_regclass(relation_name) IS NULL THEN
+        RAISE EXCEPTION 'Секции % нет, проверка отсечения бессмысленна', relation_name;
+    END IF;
+    FOR plan IN EXECUTE 'EXPLAIN (FORMAT TEXT) ' || query LOOP
+        IF position(relation_name IN plan) > 0 THEN
+            RAISE EXCEPTION 'Секция % не отсечена: %', relation_name, query;
+        END IF;
+    END LOOP;
+    RAISE NOTICE 'OK   без %: %', relation_name, left(query, 80);
+END;
+$$ LANGUAGE plpgsql;
+
+INSERT INTO cities (id, name) SELECT g, 'City ' || g FROM generate_series(1, 50) g;
+
+INSERT INTO users (id, email_or_telegram_id, password, role, is_verified, created_at, updated_at)
+SELECT g, 'user' || g || '@example.com', 'x', 'USER', true, now(), now()
+FROM generate_series(1, 100000) g;
+
+INSERT INTO orders (track_code, status, city_id, created_at, updated_at)
+SELECT 'TRK' || lpad(g::text, 10, '0'),
+       (ARRAY['INTERNATIONAL_SHIPPING', 'ARRIVED', 'READY', 'UNKNOWN'])[(g % 4) + 1],
+       (g % 50) + 1, now() - (g || ' seconds')::interval, now()
+FROM generate_series(1, 1000000) g;
+
+INSERT INTO user_orders (id, user_id, track_code, title)
+SELECT g, (g % 100000) + 1, 'TRK' || lpad(g::text, 10, '0'), NULL
+FROM generate_series(1, 500000) g;
+
+INSERT INTO scan_logs (id, track_code, old_status, new_status, user_id, scanned_at)
+SELECT g, 'TRK' || lpad(g::text, 10, '0'), 'INTERNATIONAL_SHIPPING',
+       (ARRAY['ARRIVED', 'READY'])[(g % 2) + 1], (g % 100000) + 1, now() - (g || ' seconds')::interval
+FROM generate_series(1, 1000000) g;
+
+ANALYZE cities;
+ANALYZE users;
+ANALYZE orders;
+ANALYZE user_orders;
+ANALYZE user_order_counters;
+ANALYZE scan_logs;
+
+-- AdminOrderService.getOrders: OrderSpecifications.filter(status, cityId), сортировка CREATED_DESC, slice size + 1
+SELECT pg_temp.assert_index($q$
+    select o1_0.track_code, o1_0.status, c1_0.id, c1_0.name, u2_0.email_or_telegram_id, o1_0.created_at, o1_0.updated_at, null
+    from orders o1_0
+    join cities c1_0 on c1_0.id = o1_0.city_id
+    left join user_orders u1_0 on u1_0.track_code = o1_0.track_code
+    left join users u2_0 on u2_0.id = u1_0.user_id
+    where o1_0.status = 'ARRIVED' and o1_0.city_id = 7
+    order by o1_0.created_at desc
+    offset 0 rows fetch first 21 rows only
+$q$, 'idx_orders_status_city_created');
+
+-- AdminOrderService.getOrders с withTotal: orderRepository.count(spec)
+SELECT pg_temp.assert_index($q$
+    select count(o1_0.track_code) from orders o1_0 where o1_0.status = 'ARRIVED' and o1_0.city_id = 7
+$q$, 'idx_orders_status_city_created');
+
+-- AdminOrderService.getOrders: только город
+SELECT pg_temp.assert_index($q$
+    select o1_0.track_code, o1_0.status, c1_0.id, c1_0.name, u2_0.email_or_telegram_id, o1_0.created_at, o1_0.updated_at, null
+    from orders o1_0
+    join cities c1_0 on c1_0.id = o1_0.city_id
+    left join user_orders u1_0 on u1_0.track_code = o1_0.track_code
+    left join users u2_0 on u2_0.id = u1_0.user_id
+    where o1_0.city_id = 7
+    order by o1_0.created_at desc
+    offset 0 rows fetch first 21 rows only
+$q$, 'idx_orders_city_created');
+
+-- AdminOrderService.getOrdersByCursor, CREATED_DESC вперед: OrderSpecifications.before
+SELECT pg_temp.assert_index(format($q$
+    select o1_0.track_code, o1_0.status, c1_0.id, c1_0.name, u2_0.email_or_telegram_id, o1_0.created_at, o1_0.updated_at, null
+    from orders o1_0
+    join cities c1_0 on c1_0.id = o1_0.city_id
+    left join user_orders u1_0 on u1_0.track_code = o1_0.track_code
+    left join users u2_0 on u2_0.id = u1_0.user_id
+    where o1_0.created_at <= %1$L and (o1_0.created_at < %1$L or o1_0.track_code < 'TRK0000300000')
+    order by o1_0.created_at desc, o1_0.track_code desc
+    offset 0 rows fetch first 21 rows only
+$q$, (now() - interval '3 days')::timestamp), 'idx_orders_created_track_code');
+
+-- AdminOrderService.getOrdersByCursor, CREATED_DESC назад: OrderSpecifications.after
+SELECT pg_temp.assert_index(format($q$
+    select o1_0.track_code, o1_0.status, c1_0.id, c1_0.name, u2_0.email_or_telegram_id, o1_0.created_at, o1_0.updated_at, null
+    from orders o1_0
+    join cities c1_0 on c1_0.id = o1_0.city_id
+    left join user_orders u1_0 on u1_0.track_code = o1_0.track_code
+    left join users u2_0 on u2_0.id = u1_0.user_id
+    where o1_0.created_at >= %1$L and (o1_0.created_at > %1$L or o1_0.track_code > 'TRK0000300000')
+    order by o1_0.created_at, o1_0.track_code
+    offset 0 rows fetch first 21 rows only
+$q$, (now() - interval '3 days')::timestamp), 'idx_orders_created_track_code');
+
+-- OrderJdbcRepository.transitionCity
+SELECT pg_temp.assert_index($q$
+    SELECT track_code FROM orders WHERE city_id = 7 AND status = 'ARRIVED'
+$q$, 'idx_orders_status_city_created');
+
+-- UserOrderService.getMyOrders и AdminUserService.getUser: UserOrdersSpecifications.filter(userId),
+-- сортировка по order.createdAt (QueryUtils присоединяет orders через LEFT JOIN), slice size + 1
+SELECT pg_temp.assert_index($q$
+    select u1_0.id, u1_0.track_code, u1_0.title, u1_0.updated_at, u1_0.user_id
+    from user_orders u1_0
+    left join orders o1_0 on o1_0.track_code = u1_0.track_code
+    where u1_0.user_id = 42
+    order by o1_0.created_at desc
+    offset 0 rows fetch first 21 rows only
+$q$, 'idx_user_orders_user_id');
+
+-- UserOrdersRepository.findVersionByUserId: ETag списка заказов пользователя
+SELECT pg_temp.assert_index($q$
+    select count(u1_0.id), max(o1_0.updated_at), max(u1_0.updated_at), max(c1_0.updated_at)
+    from user_orders u1_0
+    join orders o1_0 on o1_0.track_code = u1_0.track_code
+    join cities c1_0 on c1_0.id = o1_0.city_id
+    where u1_0.user_id = 42
+$q$, 'idx_user_orders_user_id');
+
+-- UserOrdersRepository.sumOrderCounters: счётчики из V5 читаются по первичному ключу
+SELECT pg_temp.assert_index($q$
+    SELECT COALESCE(SUM(c.order_count), 0) FROM user_order_counters c
+    WHERE c.user_id = 42 AND c.status IN ('INTERNATIONAL_SHIPPING', 'ARRIVED')
+$q$, 'user_order_counters_pkey');
+
+-- scan_logs секционирована (V6): в плане индексы секций, например scan_logs_2026_10_scanned_at_idx
+-- AdminScanLogsService.getScanLogs: сортировка по дате
+SELECT pg_temp.assert_index($q$
+    SELECT * FROM scan_logs l ORDER BY l.scanned_at DESC LIMIT 50
+$q$, '_scanned_at_idx');
+
+-- AdminScanLogsService.getScanLogs: статус + период
+SELECT pg_temp.assert_index($q$
+    SELECT * FROM scan_logs l WHERE l.new_status = 'READY'
+      AND l.scanned_at >= now() - interval '1 day'
+    ORDER BY l.scanned_at DESC LIMIT 50
+$q$, '_new_status_scanned_at_idx');
+
+-- История сканирований заказа
+SELECT pg_temp.assert_index($q$
+    SELECT * FROM scan_logs l WHERE l.track_code = 'TRK0000012345'
+$q$, '_track_code_idx');
+
+-- Фильтр по оператору
+SELECT pg_temp.assert_index($q$
+    SELECT * FROM scan_logs l WHERE l.user_id = 42 ORDER BY l.scanned_at DESC LIMIT 50
+$q$, '_user_id_idx');
+
+-- Фильтр по периоду затрагивает только секции этого периода. V6 создает секции с текущего месяца
+-- на три вперед, поэтому проверяется секция следующего месяца; строки прошлого месяца из сида
+-- попадают в scan_logs_default, и она тоже должна отсекаться
+SELECT pg_temp.assert_pruned(format($q$
+    SELECT * FROM scan_logs l WHERE l.scanned_at >= %L AND l.scanned_at < %L ORDER BY l.scanned_at DESC LIMIT 50
+$q$, date_trunc('month', now()), date_trunc('month', now()) + interval '1 month'),
+    'scan_logs_' || to_char(now() + interval '1 month', 'YYYY_MM'));
+
+SELECT pg_temp.assert_pruned(format($q$
+    SELECT * FROM scan_logs l WHERE l.scanned_at >= %L AND l.scanned_at < %L ORDER BY l.scanned_at DESC LIMIT 50
+$q$, date_trunc('month', now()), date_trunc('month', now()) + interval '1 month'), 'scan_logs_default');
+
+ROLLBACK;
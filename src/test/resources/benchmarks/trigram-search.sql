@@ -0,0 +1,68 @@
+-- Бенчмарк поиска подстроки до/после триграммных индексов (V2__trigram_search_indexes.sql).
+-- Запуск на пустой базе после миграций:
+--   psql -d aemix_bench -f src/test/resources/benchmarks/trigram-search.sql
+-- Скрипт работает в транзакции и откатывает все изменения.
+
+\timing on
+BEGIN;
+
+INSERT INTO cities (id, name) VALUES (1, 'Bench City');
+
+INSERT INTO users (id, email_or_telegram_id, password, role, is_verified, created_at, updated_at)
+SELECT g, 'user' || g || '_' || md5(g::text) || '@example.com', 'x',
+       CASE WHEN g % 100 = 0 THEN 'ADMIN' ELSE 'USER' END, true, now(), now()
+FROM generate_series(1, 200000) g;
+
+INSERT INTO orders (track_code, status, city_id, created_at, updated_at)
+SELECT 'TRK' || lpad(g::text, 9, '0') || upper(substr(md5(g::text), 1, 4)), 'ARRIVED', 1,
+       now() - (g || ' seconds')::interval, now()
+FROM generate_series(1, 2000000) g;
+
+INSERT INTO user_orders (id, user_id, track_code, title)
+SELECT g, (g % 200000) + 1, 'TRK' || lpad(g::text, 9, '0') || upper(substr(md5(g::text), 1, 4)),
+       'Посылка ' || substr(md5(g::text), 1, 12)
+FROM generate_series(1, 1000000) g;
+
+INSERT INTO scan_logs (id, track_code, old_status, new_status, user_id, scanned_at)
+SELECT g, 'TRK' || lpad(g::text, 9, '0') || upper(substr(md5(g::text), 1, 4)),
+       'INTERNATIONAL_SHIPPING', 'ARRIVED', ((g % 2000) + 1) * 100, now() - (g || ' seconds')::interval
+FROM generate_series(1, 2000000) g;
+
+ANALYZE users;
+ANALYZE orders;
+ANALYZE user_orders;
+ANALYZE scan_logs;
+
+-- До: индексы отключены на время выборки
+SET LOCAL enable_bitmapscan = off;
+SET LOCAL enable_indexscan = off;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM users WHERE lower(email_or_telegram_id) LIKE '%7_3f%' ESCAPE '!'
+ORDER BY created_at DESC LIMIT 20;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT l.* FROM scan_logs l JOIN users u ON u.id = l.user_id
+WHERE lower(u.email_or_telegram_id) LIKE '%user1500!_%' ESCAPE '!'
+ORDER BY l.scanned_at DESC LIMIT 50;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM orders WHERE lower(track_code) LIKE '%00012%' ESCAPE '!' LIMIT 20;
+
+-- После: планировщик может использовать триграммные GIN-индексы
+RESET enable_bitmapscan;
+RESET enable_indexscan;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM users WHERE lower(email_or_telegram_id) LIKE '%7_3f%' ESCAPE '!'
+ORDER BY created_at DESC LIMIT 20;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT l.* FROM scan_logs l JOIN users u ON u.id = l.user_id
+WHERE lower(u.email_or_telegram_id) LIKE '%user1500!_%' ESCAPE '!'
+ORDER BY l.scanned_at DESC LIMIT 50;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM orders WHERE lower(track_code) LIKE '%00012%' ESCAPE '!' LIMIT 20;
+
+ROLLBACK;